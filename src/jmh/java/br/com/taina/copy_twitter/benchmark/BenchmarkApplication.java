@@ -0,0 +1,87 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import br.com.taina.copy_twitter.CopyTwitterApplication;
+import br.com.taina.copy_twitter.service.TweetIdAllocator;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Sobe a aplicação para os benchmarks, cada uma com o seu banco H2 em memória,
+// e popula o banco com a quantidade de usuários e tweets pedida.
+final class BenchmarkApplication {
+
+    // Tamanho de cada lote JDBC dos tweets
+    private static final int BATCH_SIZE = 1_000;
+
+    private BenchmarkApplication() {
+    }
+
+    // As propriedades vão como argumentos de linha de comando: o application.properties tem precedência sobre
+    // as propriedades padrão do SpringApplicationBuilder.properties() e as sobrescreveria
+    static ConfigurableApplicationContext start(String databaseName, String... properties) {
+        var args = new ArrayList<String>(List.of(
+                "--server.port=0",
+                "--spring.datasource.url=jdbc:h2:mem:" + databaseName,
+                "--reactive.r2dbc.url=r2dbc:h2:mem:///" + databaseName + ";DB_CLOSE_DELAY=-1",
+                "--spring.jpa.show-sql=false",
+                "--spring.h2.console.enabled=false",
+                "--logging.level.root=WARN"));
+        for (var property : properties) {
+            args.add("--" + property);
+        }
+        return new SpringApplicationBuilder(CopyTwitterApplication.class).run(args.toArray(String[]::new));
+    }
+
+    // Insere direto via JDBC em lote: o objetivo é medir as leituras, não a carga
+    static List<UUID> seed(ConfigurableApplicationContext context, int users, int tweets) {
+
+        var jdbcTemplate = context.getBean(JdbcTemplate.class);
+        var idAllocator = context.getBean(TweetIdAllocator.class);
+
+        // Um único hash para todos: gerar milhares de hashes bcrypt levaria minutos
+        var passwordHash = context.getBean(BCryptPasswordEncoder.class).encode("123");
+
+        var userIds = new ArrayList<UUID>(users);
+        for (int i = 0; i < users; i++) {
+            userIds.add(UUID.randomUUID());
+        }
+
+        var userRows = new ArrayList<Object[]>(users);
+        var roleRows = new ArrayList<Object[]>(users);
+        for (int i = 0; i < users; i++) {
+            userRows.add(new Object[]{userIds.get(i), "bench_user_" + i, passwordHash});
+            roleRows.add(new Object[]{userIds.get(i)});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO tb_users (user_id, username, password) VALUES (?, ?, ?)", userRows);
+        jdbcTemplate.batchUpdate("INSERT INTO tb_user_roles (user_id, role_id) VALUES (?, 2)", roleRows);
+
+        var random = new SplittableRandom(42);
+        var now = Instant.now();
+        for (int from = 0; from < tweets; from += BATCH_SIZE) {
+            var count = Math.min(BATCH_SIZE, tweets - from);
+            var rows = new ArrayList<Object[]>(count);
+            for (int i = 0; i < count; i++) {
+                var age = tweets - (from + i); // os primeiros tweets inseridos são os mais antigos
+                rows.add(new Object[]{
+                        idAllocator.nextId(),
+                        userIds.get(random.nextInt(users)),
+                        "benchmark tweet " + (from + i),
+                        OffsetDateTime.ofInstant(now.minusSeconds(age), ZoneOffset.UTC)
+                });
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO tb_tweets (tweet_id, user_id, content, creation_timestamp) VALUES (?, ?, ?, ?)", rows);
+        }
+
+        return userIds;
+    }
+}
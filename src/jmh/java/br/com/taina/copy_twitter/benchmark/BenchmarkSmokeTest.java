@@ -0,0 +1,34 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Roda cada benchmark uma vez, rápido e com pouca carga, só para garantir que setup, medição e teardown
+// continuam funcionando. Não mede nada: os números de verdade saem do exec:exec@jmh.
+// Só é compilado e executado no perfil: ./mvnw -Pbenchmark test -Dtest=BenchmarkSmokeTest
+class BenchmarkSmokeTest {
+
+    @Test
+    void everyBenchmarkRuns() throws Exception {
+        var options = new OptionsBuilder()
+                .include(BenchmarkSmokeTest.class.getPackageName() + ".*Benchmark")
+                .forks(0)
+                .warmupIterations(0)
+                .measurementIterations(1)
+                .measurementTime(TimeValue.milliseconds(200))
+                .param("users", "100")
+                .param("tweets", "10000")
+                .param("bcryptStrength", "4")
+                .shouldFailOnError(true)
+                .build();
+
+        var results = new Runner(options).run();
+
+        assertThat(results).isNotEmpty();
+        assertThat(results).allSatisfy(result -> assertThat(result.getPrimaryResult().getSampleCount()).isPositive());
+    }
+}
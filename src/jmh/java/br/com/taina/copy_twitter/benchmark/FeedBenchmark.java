@@ -0,0 +1,78 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Latência de uma página do feed no começo (page=0) e no fundo (page=500),
+// comparando OFFSET com COUNT, OFFSET sem COUNT e paginação por cursor.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FeedBenchmark {
+
+    @Param("1000")
+    int users;
+
+    @Param("100000")
+    int tweets;
+
+    @Param({"0", "500"})
+    int page;
+
+    @Param("10")
+    int pageSize;
+
+    private ConfigurableApplicationContext context;
+
+    private TweetRepository tweetRepository;
+
+    // Último item da página anterior: o cursor que leva até a mesma profundidade do OFFSET
+    private FeedItemDto cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("feed-benchmark");
+        BenchmarkApplication.seed(context, users, tweets);
+        tweetRepository = context.getBean(TweetRepository.class);
+
+        if (page > 0) {
+            var previous = tweetRepository.findFeedSlice(PageRequest.of(page - 1, pageSize)).getContent();
+            cursor = previous.get(previous.size() - 1);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Page<FeedItemDto> offsetWithCount() {
+        return tweetRepository.findFeedPage(PageRequest.of(page, pageSize));
+    }
+
+    @Benchmark
+    public Slice<FeedItemDto> offsetWithoutCount() {
+        return tweetRepository.findFeedSlice(PageRequest.of(page, pageSize));
+    }
+
+    @Benchmark
+    public List<FeedItemDto> cursor() {
+        if (cursor == null) {
+            return tweetRepository.findFeedHead(Limit.of(pageSize + 1));
+        }
+        return tweetRepository.findFeedBefore(cursor.creationTimestamp(), cursor.tweetId(), Limit.of(pageSize + 1));
+    }
+}
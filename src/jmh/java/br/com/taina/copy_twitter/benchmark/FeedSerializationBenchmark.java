@@ -0,0 +1,57 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import br.com.taina.copy_twitter.dto.FeedDto;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+// Serialização JSON do feed, com a mesma configuração de datas que o Spring Boot usa nas respostas
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FeedSerializationBenchmark {
+
+    @Param("10")
+    int pageSize;
+
+    private ObjectMapper objectMapper;
+
+    private FeedItemDto item;
+
+    private FeedDto feed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+
+        var items = new ArrayList<FeedItemDto>(pageSize);
+        for (int i = 0; i < pageSize; i++) {
+            items.add(new FeedItemDto((long) i, "Conteúdo do tweet número " + i + " com alguns caracteres",
+                    "user_" + i, Instant.now()));
+        }
+        item = items.get(0);
+        feed = new FeedDto(items, 0, pageSize, 100, 100L * pageSize);
+    }
+
+    @Benchmark
+    public byte[] feedItem() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(item);
+    }
+
+    @Benchmark
+    public byte[] feedPage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(feed);
+    }
+}
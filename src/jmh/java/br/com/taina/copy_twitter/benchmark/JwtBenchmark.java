@@ -0,0 +1,96 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.proc.SingleKeyJWSKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.security.converter.RsaKeyConverters;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Custo de assinar (login) e de validar (toda requisição autenticada) um JWT,
+// usando os beans JwtEncoder/JwtDecoder do SecurityConfig.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class JwtBenchmark {
+
+    // RS256 (RSA) ou ES256 (EC P-256), conforme jwt.algorithm
+    @Param({"RS256", "ES256"})
+    String algorithm;
+
+    private ConfigurableApplicationContext context;
+
+    private JwtEncoder jwtEncoder;
+
+    private JwtDecoder jwtDecoder;
+
+    // Decoder sem o cache de tokens verificados: sempre verifica a assinatura
+    private JwtDecoder uncachedDecoder;
+
+    private String token;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException, JOSEException {
+        context = BenchmarkApplication.start("jwt-benchmark", "jwt.algorithm=" + algorithm);
+        jwtEncoder = context.getBean(JwtEncoder.class);
+        jwtDecoder = context.getBean(JwtDecoder.class);
+
+        if (algorithm.equals("ES256")) {
+            var jwtProcessor = new DefaultJWTProcessor<SecurityContext>();
+            jwtProcessor.setJWSKeySelector(new SingleKeyJWSKeySelector<>(JWSAlgorithm.ES256,
+                    context.getBean(JWK.class).toECKey().toECPublicKey()));
+            uncachedDecoder = new NimbusJwtDecoder(jwtProcessor);
+        } else {
+            try (var publicKey = new ClassPathResource("app.pub").getInputStream()) {
+                uncachedDecoder = NimbusJwtDecoder.withPublicKey(RsaKeyConverters.x509().convert(publicKey)).build();
+            }
+        }
+        token = encode();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String encode() {
+        var now = Instant.now();
+        var claims = JwtClaimsSet.builder()
+                .issuer("mybackend")
+                .subject(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plusSeconds(1440))
+                .claim("scope", "BASIC")
+                .build();
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
+    }
+
+    @Benchmark
+    public Jwt decodeCached() {
+        return jwtDecoder.decode(token);
+    }
+
+    @Benchmark
+    public Jwt decodeUncached() {
+        return uncachedDecoder.decode(token);
+    }
+}
@@ -0,0 +1,84 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.TimeUnit;
+
+// Logins por segundo de ponta a ponta: POST /login via HTTP (Tomcat, JSON, rate limit, cache de credenciais,
+// bcrypt e assinatura do JWT).
+//
+// Um único cliente (@Threads(1)) que espera cada resposta: o login só usa CPU (bcrypt e assinatura), então
+// a vazão medida é aproximadamente a de um núcleo. O custo do bcrypt e o algoritmo do JWT são parâmetros,
+// para separar a parte fixa (bcrypt) do que o pipeline do login acrescenta.
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(1)
+@Fork(1)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+public class LoginBenchmark {
+
+    @Param({"RS256", "ES256"})
+    String algorithm;
+
+    @Param({"4", "10"})
+    int bcryptStrength;
+
+    // Logins distribuídos entre esta quantidade de usuários
+    @Param("1000")
+    int users;
+
+    private ConfigurableApplicationContext context;
+
+    private HttpClient http;
+
+    private HttpRequest[] requests;
+
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("login-benchmark",
+                "jwt.algorithm=" + algorithm,
+                "security.bcrypt.strength=" + bcryptStrength,
+                // O rate limit do login não pode entrar na medição
+                "security.login.rate-limit.capacity=1000000000",
+                "security.login.rate-limit.refill-per-minute=1000000000");
+        BenchmarkApplication.seed(context, users, 0);
+
+        var baseUrl = "http://localhost:" + context.getEnvironment().getProperty("local.server.port");
+        http = HttpClient.newHttpClient();
+        requests = new HttpRequest[users];
+        for (int i = 0; i < users; i++) {
+            requests[i] = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"username\":\"bench_user_" + i + "\",\"password\":\"123\"}"))
+                    .build();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        http.close();
+        context.close();
+    }
+
+    @Benchmark
+    public int login() throws IOException, InterruptedException {
+        var request = requests[next];
+        next = (next + 1) % requests.length;
+        var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        return response.body().length();
+    }
+}
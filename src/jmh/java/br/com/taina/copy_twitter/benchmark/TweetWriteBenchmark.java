@@ -0,0 +1,76 @@
+package br.com.taina.copy_twitter.benchmark;
+
+import br.com.taina.copy_twitter.entity.Tweet;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Tweets gravados por segundo: um INSERT por transação contra lotes de `batchSize` tweets
+// (o mesmo caminho do POST /tweets e do POST /tweets/batch).
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class TweetWriteBenchmark {
+
+    @Param("100")
+    int batchSize;
+
+    private ConfigurableApplicationContext context;
+
+    private TweetRepository tweetRepository;
+
+    private UserRepository userRepository;
+
+    private TransactionTemplate transactionTemplate;
+
+    private UUID authorId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkApplication.start("tweet-write-benchmark");
+        authorId = BenchmarkApplication.seed(context, 1, 0).get(0);
+        tweetRepository = context.getBean(TweetRepository.class);
+        userRepository = context.getBean(UserRepository.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Tweet singleInsert() {
+        return transactionTemplate.execute(status -> tweetRepository.save(newTweet(0)));
+    }
+
+    // Cada operação é o lote inteiro; para comparar com singleInsert multiplique a vazão por batchSize
+    @Benchmark
+    public int batchInsert() {
+        return transactionTemplate.execute(status -> {
+            var tweets = new ArrayList<Tweet>(batchSize);
+            for (int i = 0; i < batchSize; i++) {
+                tweets.add(newTweet(i));
+            }
+            tweetRepository.saveAll(tweets);
+            tweetRepository.flush();
+            return tweets.size();
+        });
+    }
+
+    private Tweet newTweet(int index) {
+        var tweet = new Tweet();
+        tweet.setUser(userRepository.getReferenceById(authorId));
+        tweet.setContent("benchmark tweet " + index);
+        return tweet;
+    }
+}
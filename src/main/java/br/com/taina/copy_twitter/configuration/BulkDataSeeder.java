@@ -0,0 +1,326 @@
+package br.com.taina.copy_twitter.configuration;
+
+import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.service.TweetTextParser;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.DependsOnDatabaseInitialization;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+// Perfil "seed": gera uma massa de dados realista (usuários, seguidores e tweets) na inicialização,
+// direto por JDBC em lotes, sem passar pelo Hibernate.
+//
+// - Autoria Zipf: poucos usuários escrevem a maior parte dos tweets e recebem a maior parte dos seguidores
+//   (expoente em seed.zipf-exponent), como numa rede social de verdade.
+// - Horários em rajadas: os tweets se espalham pelos últimos seed.days dias seguindo um ciclo diário, e
+//   uma fração (seed.burst-fraction) se concentra em poucos minutos ao redor de eventos sorteados.
+//
+// Roda como InitializingBean, ou seja, antes de qualquer afterSingletonsInstantiated: filtro de Bloom,
+// cache de credenciais, partições e índice de busca já sobem enxergando os dados gerados.
+// Todos os usuários gerados (user0000001, user0000002, ...) têm a senha seed.password.
+@Configuration
+@Profile("seed")
+@DependsOnDatabaseInitialization
+public class BulkDataSeeder implements InitializingBean {
+
+    private static final Logger log = LoggerFactory.getLogger(BulkDataSeeder.class);
+
+    private static final String[] WORDS = {
+            "hoje", "amanhã", "café", "trabalho", "código", "java", "spring", "banco", "feed", "deploy",
+            "bug", "teste", "música", "jogo", "filme", "série", "chuva", "sol", "praia", "cidade",
+            "ônibus", "reunião", "almoço", "livro", "viagem", "time", "gol", "notícia", "projeto", "ideia"
+    };
+
+    // Poucas hashtags, também com popularidade Zipf (as primeiras aparecem muito mais)
+    private static final String[] HASHTAGS = {
+            "java", "spring", "futebol", "musica", "tecnologia", "brasil", "cinema", "games", "viagem", "dev",
+            "copa", "eleicoes", "chuva", "ferias", "segunda", "sextou", "h2", "jvm", "opensource", "cafe"
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final BCryptPasswordEncoder passwordEncoder;
+
+    private final int users;
+
+    private final int tweets;
+
+    private final int followsPerUser;
+
+    private final int days;
+
+    private final double zipfExponent;
+
+    private final double burstFraction;
+
+    private final int batchSize;
+
+    private final String password;
+
+    private final long randomSeed;
+
+    public BulkDataSeeder(JdbcTemplate jdbcTemplate,
+                          TransactionTemplate transactionTemplate,
+                          BCryptPasswordEncoder passwordEncoder,
+                          @Value("${seed.users:100000}") int users,
+                          @Value("${seed.tweets:1000000}") int tweets,
+                          @Value("${seed.follows-per-user:10}") int followsPerUser,
+                          @Value("${seed.days:7}") int days,
+                          @Value("${seed.zipf-exponent:1.1}") double zipfExponent,
+                          @Value("${seed.burst-fraction:0.2}") double burstFraction,
+                          @Value("${seed.batch-size:5000}") int batchSize,
+                          @Value("${seed.password:123}") String password,
+                          @Value("${seed.random-seed:42}") long randomSeed) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.passwordEncoder = passwordEncoder;
+        this.users = users;
+        this.tweets = tweets;
+        this.followsPerUser = Math.min(followsPerUser, Math.max(users - 1, 0));
+        this.days = Math.max(days, 1);
+        this.zipfExponent = zipfExponent;
+        this.burstFraction = burstFraction;
+        this.batchSize = batchSize;
+        this.password = password;
+        this.randomSeed = randomSeed;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        if (users <= 0) {
+            return;
+        }
+        // Banco persistente já semeado: não gera de novo
+        var existing = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM tb_users WHERE username = ?", Integer.class, username(0));
+        if (existing != null && existing > 0) {
+            log.info("Seed data already present, skipping");
+            return;
+        }
+
+        var start = System.nanoTime();
+        var random = new SplittableRandom(randomSeed);
+        var zipf = new Zipf(users, zipfExponent);
+
+        var userIds = insertUsers();
+        var follows = insertFollows(userIds, zipf, random.split());
+        insertTweets(userIds, zipf, random.split());
+
+        log.info("Seeded {} users, {} follows and {} tweets in {} ms",
+                users, follows, tweets, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private UUID[] insertUsers() {
+        // Um único hash bcrypt para todos: calcular milhões de hashes levaria horas
+        var passwordHash = passwordEncoder.encode(password);
+        var basicRoleId = jdbcTemplate.queryForObject(
+                "SELECT role_id FROM tb_roles WHERE name = ?", Long.class, Role.Values.BASIC.name());
+
+        var userIds = new UUID[users];
+        for (int i = 0; i < users; i++) {
+            userIds[i] = UUID.randomUUID();
+        }
+        inBatches(users, (from, to) -> {
+            var rows = new ArrayList<Object[]>(to - from);
+            var roles = new ArrayList<Object[]>(to - from);
+            for (int i = from; i < to; i++) {
+                rows.add(new Object[]{userIds[i], username(i), passwordHash});
+                roles.add(new Object[]{userIds[i], basicRoleId});
+            }
+            jdbcTemplate.batchUpdate("INSERT INTO tb_users (user_id, username, password) VALUES (?, ?, ?)", rows);
+            jdbcTemplate.batchUpdate("INSERT INTO tb_user_roles (user_id, role_id) VALUES (?, ?)", roles);
+        });
+        return userIds;
+    }
+
+    // Cada usuário segue até seed.follows-per-user autores sorteados por popularidade (Zipf)
+    private long insertFollows(UUID[] userIds, Zipf zipf, SplittableRandom random) {
+        if (followsPerUser <= 0) {
+            return 0;
+        }
+        var now = Timestamp.from(Instant.now());
+        var perBatch = Math.max(1, batchSize / followsPerUser);
+        var total = new long[1];
+        inBatches(users, perBatch, (from, to) -> {
+            var rows = new ArrayList<Object[]>((to - from) * followsPerUser);
+            var followed = new HashSet<Integer>();
+            for (int follower = from; follower < to; follower++) {
+                followed.clear();
+                // Limite de tentativas: com Zipf muito concentrado os mesmos autores saem repetidos
+                for (int attempt = 0; followed.size() < followsPerUser && attempt < followsPerUser * 4; attempt++) {
+                    var author = zipf.sample(random);
+                    if (author != follower && followed.add(author)) {
+                        rows.add(new Object[]{userIds[follower], userIds[author], now});
+                    }
+                }
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO tb_follows (follower_id, followed_id, creation_timestamp) VALUES (?, ?, ?)", rows);
+            total[0] += rows.size();
+        });
+        return total[0];
+    }
+
+    private void insertTweets(UUID[] userIds, Zipf zipf, SplittableRandom random) {
+        if (tweets <= 0) {
+            return;
+        }
+        // Horários ordenados: os ids crescem junto com o tempo, como na aplicação
+        var timestamps = timestamps(random);
+
+        inBatches(tweets, (from, to) -> {
+            var rows = new ArrayList<Object[]>(to - from);
+            var hashtags = new ArrayList<Object[]>();
+            var mentions = new ArrayList<Object[]>();
+            for (int i = from; i < to; i++) {
+                long tweetId = i + 1;
+                var content = content(zipf, random);
+                rows.add(new Object[]{tweetId, userIds[zipf.sample(random)], content,
+                        Timestamp.from(Instant.ofEpochMilli(timestamps[i]))});
+                for (var hashtag : TweetTextParser.hashtags(content)) {
+                    hashtags.add(new Object[]{tweetId, hashtag});
+                }
+                for (var mention : TweetTextParser.mentions(content)) {
+                    mentions.add(new Object[]{tweetId, mention});
+                }
+            }
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO tb_tweets (tweet_id, user_id, content, creation_timestamp) VALUES (?, ?, ?, ?)", rows);
+            jdbcTemplate.batchUpdate("INSERT INTO tb_tweet_hashtags (tweet_id, hashtag) VALUES (?, ?)", hashtags);
+            jdbcTemplate.batchUpdate("INSERT INTO tb_tweet_mentions (tweet_id, username) VALUES (?, ?)", mentions);
+        });
+
+        // Os ids 1..tweets foram usados aqui; a sequência (pooled-lo, blocos de 50) continua depois deles
+        jdbcTemplate.execute("ALTER SEQUENCE tb_tweets_seq RESTART WITH " + (tweets + 1L));
+    }
+
+    // Horários (epoch ms) dos tweets nos últimos seed.days dias, em ordem crescente.
+    // A maioria segue o ciclo do dia (pico à noite, vale de madrugada); o restante cai em rajadas curtas.
+    private long[] timestamps(SplittableRandom random) {
+        var end = Instant.now().truncatedTo(ChronoUnit.SECONDS).toEpochMilli();
+        var span = Duration.ofDays(days).toMillis();
+        var dayMillis = Duration.ofDays(1).toMillis();
+
+        // Um evento a cada ~6 horas, cada um durando poucos minutos
+        var bursts = new long[Math.max(1, days * 4)];
+        for (int i = 0; i < bursts.length; i++) {
+            bursts[i] = end - random.nextLong(span);
+        }
+        var burstSpread = Duration.ofMinutes(10).toMillis();
+
+        var timestamps = new long[tweets];
+        for (int i = 0; i < tweets; i++) {
+            long timestamp;
+            if (random.nextDouble() < burstFraction) {
+                timestamp = bursts[random.nextInt(bursts.length)] + (long) (random.nextDouble() * random.nextDouble() * burstSpread);
+            } else {
+                // Rejeição sobre o ciclo diário: peso entre 0.2 (4h da manhã) e 1.0 (16h depois)
+                do {
+                    timestamp = end - random.nextLong(span);
+                } while (random.nextDouble() > dailyWeight(Math.floorMod(timestamp, dayMillis), dayMillis));
+            }
+            timestamps[i] = Math.min(timestamp, end);
+        }
+        Arrays.sort(timestamps);
+        return timestamps;
+    }
+
+    private static double dailyWeight(long millisOfDay, long dayMillis) {
+        var phase = 2 * Math.PI * (millisOfDay / (double) dayMillis - 4.0 / 24);
+        return 0.6 - 0.4 * Math.cos(phase);
+    }
+
+    // Frase curta com palavras aleatórias; às vezes uma hashtag popular ou a menção a um autor popular
+    private String content(Zipf zipf, SplittableRandom random) {
+        var builder = new StringBuilder();
+        var length = 4 + random.nextInt(12);
+        for (int w = 0; w < length; w++) {
+            if (w > 0) {
+                builder.append(' ');
+            }
+            builder.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        if (random.nextDouble() < 0.3) {
+            builder.append(" #").append(HASHTAGS[Math.min(HASHTAGS.length - 1, zipfIndex(random, HASHTAGS.length))]);
+        }
+        if (random.nextDouble() < 0.1) {
+            builder.append(" @").append(username(zipf.sample(random)));
+        }
+        return builder.toString();
+    }
+
+    // Aproximação barata de Zipf (s=1) para listas pequenas
+    private static int zipfIndex(SplittableRandom random, int size) {
+        return (int) Math.floor(Math.exp(random.nextDouble() * Math.log(size + 1))) - 1;
+    }
+
+    static String username(int index) {
+        return "user%07d".formatted(index + 1);
+    }
+
+    // Cada lote é gravado na sua própria transação: um erro no meio não desfaz o que já foi gerado,
+    // e o H2 não precisa manter o undo log de milhões de linhas
+    private void inBatches(int total, BatchWriter writer) {
+        inBatches(total, batchSize, writer);
+    }
+
+    private void inBatches(int total, int size, BatchWriter writer) {
+        var reported = 0L;
+        for (int from = 0; from < total; from += size) {
+            var to = Math.min(total, from + size);
+            var batchFrom = from;
+            transactionTemplate.executeWithoutResult(status -> writer.write(batchFrom, to));
+            if (to - reported >= total / 10 && to < total) {
+                log.info("Seeding... {}/{}", to, total);
+                reported = to;
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface BatchWriter {
+        void write(int from, int to);
+    }
+
+    // Sorteio Zipf sobre [0, n): P(k) proporcional a 1/(k+1)^s. A distribuição acumulada é calculada uma vez
+    // e cada sorteio é uma busca binária.
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            var sum = 0.0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            var index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+}
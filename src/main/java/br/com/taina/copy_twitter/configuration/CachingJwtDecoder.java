@@ -0,0 +1,78 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+// JwtDecoder que guarda os tokens já verificados.
+// O cliente manda o mesmo token em todas as requisições até ele expirar, então a verificação
+// da assinatura RSA (a parte cara) é feita só na primeira vez em que o token aparece.
+// Um token do cache só é devolvido enquanto não tiver expirado; depois disso volta para o
+// decoder original, que faz todas as validações e rejeita o token.
+public class CachingJwtDecoder implements JwtDecoder {
+
+    private record Entry(Jwt jwt, Instant validUntil) {
+    }
+
+    private final JwtDecoder delegate;
+
+    private final Duration ttl;
+
+    private final Map<String, Entry> cache;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    public CachingJwtDecoder(JwtDecoder delegate, int maxEntries, Duration ttl) {
+        this.delegate = delegate;
+        this.ttl = ttl;
+        // LRU: ao passar do limite descarta o token usado há mais tempo
+        this.cache = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    @Override
+    public Jwt decode(String token) throws JwtException {
+
+        var now = Instant.now();
+
+        lock.lock();
+        try {
+            var entry = cache.get(token);
+            if (entry != null) {
+                if (now.isBefore(entry.validUntil())) {
+                    return entry.jwt();
+                }
+                cache.remove(token);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Token novo (ou vencido): validação completa com verificação da assinatura
+        var jwt = delegate.decode(token);
+
+        // Fica no cache pelo tempo configurado, mas nunca além da expiração do próprio token
+        var validUntil = now.plus(ttl);
+        if (jwt.getExpiresAt() != null && jwt.getExpiresAt().isBefore(validUntil)) {
+            validUntil = jwt.getExpiresAt();
+        }
+
+        lock.lock();
+        try {
+            cache.put(token, new Entry(jwt, validUntil));
+        } finally {
+            lock.unlock();
+        }
+        return jwt;
+    }
+}
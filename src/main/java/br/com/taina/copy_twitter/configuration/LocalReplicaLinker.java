@@ -0,0 +1,89 @@
+package br.com.taina.copy_twitter.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.util.ArrayList;
+
+/**
+ * Só para rodar o perfil "replicas" localmente com dois H2 em memória: não existe replicação entre eles,
+ * então cada tabela do primário é criada na réplica como uma LINKED TABLE (somente leitura) apontando
+ * para o primário. Assim a réplica é um banco separado, com suas próprias conexões, e enxerga os dados.
+ *
+ * Roda depois que o Hibernate criou o schema e o data.sql foi executado, e antes do servidor web subir.
+ */
+@Component
+@Profile("replicas")
+@ConditionalOnProperty(name = "replicas.link-local-h2", havingValue = "true")
+public class LocalReplicaLinker implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(LocalReplicaLinker.class);
+
+    private final HikariDataSource primaryDataSource;
+
+    private final DataSourceProperties primaryProperties;
+
+    private final String[] replicaUrls;
+
+    private final String replicaUsername;
+
+    private final String replicaPassword;
+
+    public LocalReplicaLinker(HikariDataSource primaryDataSource,
+                              DataSourceProperties primaryProperties,
+                              @Value("${replicas.urls}") String[] replicaUrls,
+                              @Value("${replicas.username:sa}") String replicaUsername,
+                              @Value("${replicas.password:}") String replicaPassword) {
+        this.primaryDataSource = primaryDataSource;
+        this.primaryProperties = primaryProperties;
+        this.replicaUrls = replicaUrls;
+        this.replicaUsername = replicaUsername;
+        this.replicaPassword = replicaPassword;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        try {
+            var tables = new ArrayList<String>();
+            try (var connection = primaryDataSource.getConnection();
+                 var statement = connection.createStatement();
+                 var rs = statement.executeQuery("SELECT TABLE_NAME FROM INFORMATION_SCHEMA.TABLES "
+                         + "WHERE TABLE_SCHEMA = 'PUBLIC' AND TABLE_TYPE = 'BASE TABLE'")) {
+                while (rs.next()) {
+                    tables.add(rs.getString(1));
+                }
+            }
+
+            var password = primaryProperties.getPassword() == null ? "" : primaryProperties.getPassword();
+            for (var url : replicaUrls) {
+                try (var connection = DriverManager.getConnection(url.trim(), replicaUsername, replicaPassword);
+                     var statement = connection.createStatement()) {
+                    // Comando DDL: os valores vão como literais (nomes vindos do INFORMATION_SCHEMA do primário)
+                    for (var table : tables) {
+                        statement.execute("CREATE LINKED TABLE IF NOT EXISTS \"" + table + "\"('org.h2.Driver', "
+                                + literal(primaryProperties.getUrl()) + ", "
+                                + literal(primaryProperties.getUsername()) + ", "
+                                + literal(password) + ", 'PUBLIC', "
+                                + literal(table) + ") READONLY");
+                    }
+                }
+                log.info("Linked {} tables from the primary into replica {}", tables.size(), url);
+            }
+        } catch (SQLException e) {
+            throw new IllegalStateException("Could not link the local H2 replica to the primary", e);
+        }
+    }
+
+    private static String literal(String value) {
+        return "'" + value.replace("'", "''") + "'";
+    }
+}
@@ -0,0 +1,39 @@
+package br.com.taina.copy_twitter.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+@Configuration
+public class MetricsConfig {
+
+    /**
+     * Registra o {@link QueryCounter} no Hibernate, para contar os comandos SQL e as entidades
+     * carregadas em cada requisição.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer queryCounterCustomizer() {
+        var queryCounter = new QueryCounter();
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, queryCounter);
+            properties.put(AvailableSettings.INTERCEPTOR, queryCounter);
+        };
+    }
+
+    /**
+     * Filtro que publica as métricas de consultas do Hibernate por requisição e avisa quando uma requisição
+     * passa do orçamento. Roda antes do Spring Security para contar também as consultas feitas lá.
+     */
+    @Bean
+    public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(MeterRegistry meterRegistry,
+                                                                      @Value("${metrics.query-budget:10}") long queryBudget) {
+        var registration = new FilterRegistrationBean<>(new QueryBudgetFilter(meterRegistry, queryBudget));
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+}
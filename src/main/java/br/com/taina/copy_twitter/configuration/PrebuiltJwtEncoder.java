@@ -0,0 +1,75 @@
+package br.com.taina.copy_twitter.configuration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.JWSHeader;
+import com.nimbusds.jose.JWSSigner;
+import com.nimbusds.jose.crypto.ECDSASigner;
+import com.nimbusds.jose.crypto.RSASSASigner;
+import com.nimbusds.jose.jwk.ECKey;
+import com.nimbusds.jose.jwk.JWK;
+import com.nimbusds.jose.jwk.RSAKey;
+import com.nimbusds.jwt.JWTClaimsSet;
+import com.nimbusds.jwt.SignedJWT;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+
+import java.time.Instant;
+import java.util.Date;
+
+/**
+ * JwtEncoder com o assinador e o cabeçalho montados uma única vez.
+ *
+ * O {@link org.springframework.security.oauth2.jwt.NimbusJwtEncoder} procura a chave no JWKSource e monta o
+ * cabeçalho a cada token; aqui só existe uma chave, então a cada login resta apenas converter os claims e assinar.
+ * Aceita chave RSA (RS256) ou EC P-256 (ES256). Os assinadores do Nimbus podem ser usados por várias threads.
+ */
+public class PrebuiltJwtEncoder implements JwtEncoder {
+
+    private final JWSSigner signer;
+
+    private final JWSHeader header;
+
+    public PrebuiltJwtEncoder(JWK jwk) {
+        try {
+            if (jwk instanceof RSAKey rsaKey) {
+                this.signer = new RSASSASigner(rsaKey);
+                this.header = new JWSHeader.Builder(JWSAlgorithm.RS256).keyID(jwk.getKeyID()).build();
+            } else if (jwk instanceof ECKey ecKey) {
+                this.signer = new ECDSASigner(ecKey);
+                this.header = new JWSHeader.Builder(JWSAlgorithm.ES256).keyID(jwk.getKeyID()).build();
+            } else {
+                throw new IllegalArgumentException("Unsupported JWK type: " + jwk.getKeyType());
+            }
+        } catch (JOSEException e) {
+            throw new IllegalArgumentException("Invalid signing key", e);
+        }
+    }
+
+    @Override
+    public Jwt encode(JwtEncoderParameters parameters) throws JwtEncodingException {
+        // O algoritmo é o da chave; um cabeçalho pedindo outro algoritmo é um erro de quem chamou
+        var requested = parameters.getJwsHeader();
+        if (requested != null && !requested.getAlgorithm().getName().equals(header.getAlgorithm().getName())) {
+            throw new JwtEncodingException("Unsupported algorithm " + requested.getAlgorithm().getName());
+        }
+
+        var claims = parameters.getClaims();
+        var builder = new JWTClaimsSet.Builder();
+        // O Nimbus serializa Date como segundos desde a época (formato de exp, iat e nbf)
+        claims.getClaims().forEach((name, value) ->
+                builder.claim(name, value instanceof Instant instant ? Date.from(instant) : value));
+
+        var jwt = new SignedJWT(header, builder.build());
+        try {
+            jwt.sign(signer);
+        } catch (JOSEException e) {
+            throw new JwtEncodingException("Failed to sign the JWT", e);
+        }
+
+        return new Jwt(jwt.serialize(), claims.getIssuedAt(), claims.getExpiresAt(),
+                header.toJSONObject(), claims.getClaims());
+    }
+}
@@ -0,0 +1,67 @@
+package br.com.taina.copy_twitter.configuration;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.io.IOException;
+
+// Registra, por endpoint, quantos comandos SQL o Hibernate executou e quantas entidades ele carregou em cada
+// requisição (métricas http.server.requests.hibernate.statements e http.server.requests.hibernate.entities)
+// e escreve um aviso no log quando uma requisição passa do orçamento de consultas (metrics.query-budget).
+//
+// Só enxerga o trabalho do Hibernate na thread da requisição: o que roda em outros pools (bcrypt, escrita
+// assíncrona) e as consultas pelo JdbcTemplate ou pelo R2DBC não entram na conta (ver QueryCounter).
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+    private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+    private final MeterRegistry meterRegistry;
+
+    private final long queryBudget;
+
+    public QueryBudgetFilter(MeterRegistry meterRegistry, long queryBudget) {
+        this.meterRegistry = meterRegistry;
+        this.queryBudget = queryBudget;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+
+        QueryCounter.reset();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            var statements = QueryCounter.statements();
+            var entities = QueryCounter.entitiesLoaded();
+
+            // O padrão da rota (ex.: /tweets/{id}) em vez da URL, para não criar uma métrica por id
+            var pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+            var uri = pattern != null ? pattern.toString() : "UNKNOWN";
+
+            DistributionSummary.builder("http.server.requests.hibernate.statements")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(statements);
+            DistributionSummary.builder("http.server.requests.hibernate.entities")
+                    .tag("method", request.getMethod())
+                    .tag("uri", uri)
+                    .register(meterRegistry)
+                    .record(entities);
+
+            if (statements > queryBudget) {
+                log.warn("{} {} executed {} Hibernate SQL statements (budget {}) and loaded {} entities",
+                        request.getMethod(), request.getRequestURI(), statements, queryBudget, entities);
+            }
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.hibernate.Interceptor;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+// Conta, por thread, quantos comandos SQL o Hibernate executou e quantas entidades ele carregou.
+// O QueryBudgetFilter zera os contadores no começo de cada requisição e lê no final,
+// o que deixa visível quando um endpoint dispara consultas N+1.
+//
+// Entidades carregadas não são linhas lidas: consultas que projetam direto em DTO carregam 0 entidades,
+// e o que passa pelo JdbcTemplate ou pelo R2DBC não passa pelo Hibernate, então não entra em nenhum dos contadores.
+public class QueryCounter implements StatementInspector, Interceptor {
+
+    private static final ThreadLocal<long[]> COUNTS = ThreadLocal.withInitial(() -> new long[2]);
+
+    private static final int STATEMENTS = 0;
+
+    private static final int ENTITIES = 1;
+
+    // Chamado pelo Hibernate antes de preparar cada comando SQL
+    @Override
+    public String inspect(String sql) {
+        COUNTS.get()[STATEMENTS]++;
+        return sql;
+    }
+
+    // Chamado pelo Hibernate para cada entidade montada a partir de uma linha do banco
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        COUNTS.get()[ENTITIES]++;
+        return false;
+    }
+
+    public static void reset() {
+        var counts = COUNTS.get();
+        counts[STATEMENTS] = 0;
+        counts[ENTITIES] = 0;
+    }
+
+    public static long statements() {
+        return COUNTS.get()[STATEMENTS];
+    }
+
+    public static long entitiesLoaded() {
+        return COUNTS.get()[ENTITIES];
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.taina.copy_twitter.configuration;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.time.Duration;
+
+// Conexões R2DBC usadas apenas pelo caminho de leitura reativo (/reactive/**).
+//
+// O pool não é exposto como bean ConnectionFactory de propósito: assim o Spring Boot continua
+// usando o DataSource (JDBC) para o data.sql e para o gerenciador de transações do JPA,
+// e o R2DBC não disputa com ele (a autoconfiguração do R2DBC está excluída no application.properties).
+@Configuration
+public class ReactiveDatabaseConfig {
+
+    private final ConnectionPool connectionPool;
+
+    public ReactiveDatabaseConfig(@Value("${reactive.r2dbc.url}") String url,
+                                  @Value("${reactive.r2dbc.username:sa}") String username,
+                                  @Value("${reactive.r2dbc.password:}") String password,
+                                  @Value("${reactive.r2dbc.pool.initial-size:4}") int initialSize,
+                                  @Value("${reactive.r2dbc.pool.max-size:16}") int maxSize) {
+
+        var options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .initialSize(initialSize)
+                .maxSize(maxSize)
+                .maxIdleTime(Duration.ofMinutes(30))
+                .build());
+    }
+
+    @Bean
+    public DatabaseClient reactiveDatabaseClient() {
+        return DatabaseClient.create(connectionPool);
+    }
+
+    @PreDestroy
+    public void close() {
+        connectionPool.dispose();
+    }
+}
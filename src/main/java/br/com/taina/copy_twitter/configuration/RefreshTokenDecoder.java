@@ -0,0 +1,30 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.springframework.security.oauth2.jwt.BadJwtException;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.JwtException;
+
+// Valida os refresh tokens (mesma chave dos tokens de acesso, mas exige o claim token_use=refresh).
+// Não implementa JwtDecoder de propósito: o resource server usa o único bean JwtDecoder da aplicação,
+// que é o dos tokens de acesso e rejeita refresh tokens.
+public class RefreshTokenDecoder {
+
+    // Claim que diferencia o refresh token do token de acesso
+    public static final String TOKEN_USE_CLAIM = "token_use";
+
+    public static final String REFRESH = "refresh";
+
+    private final JwtDecoder delegate;
+
+    public RefreshTokenDecoder(JwtDecoder delegate) {
+        this.delegate = delegate;
+    }
+
+    public Jwt decode(String token) throws JwtException {
+        if (token == null || token.isBlank()) {
+            throw new BadJwtException("Refresh token is missing");
+        }
+        return delegate.decode(token);
+    }
+}
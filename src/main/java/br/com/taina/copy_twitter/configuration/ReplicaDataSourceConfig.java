@@ -0,0 +1,63 @@
+package br.com.taina.copy_twitter.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+// Perfil "replicas": leituras readOnly nas réplicas (replicas.urls), escritas no spring.datasource.url.
+// Sem o perfil, a aplicação continua com o DataSource único criado pelo Spring Boot.
+@Configuration
+@Profile("replicas")
+public class ReplicaDataSourceConfig {
+
+    // Pool do primário, com as mesmas propriedades spring.datasource.* e spring.datasource.hikari.*
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        var dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean(destroyMethod = "close")
+    public ReplicaRoutingDataSource replicaRoutingDataSource(HikariDataSource primaryDataSource,
+                                                             @Value("${replicas.urls}") String[] urls,
+                                                             @Value("${replicas.username:sa}") String username,
+                                                             @Value("${replicas.password:}") String password,
+                                                             @Value("${replicas.pool-size:10}") int poolSize,
+                                                             @Value("${replicas.stickiness:5s}") Duration stickiness,
+                                                             @Value("${replicas.health-check.timeout:1s}") Duration healthCheckTimeout) {
+        var replicas = new LinkedHashMap<String, DataSource>();
+        for (int i = 0; i < urls.length; i++) {
+            var replica = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(urls[i].trim())
+                    .username(username)
+                    .password(password)
+                    .build();
+            replica.setPoolName("replica-" + i);
+            replica.setMaximumPoolSize(poolSize);
+            replica.setReadOnly(true);
+            replicas.put(replica.getPoolName(), replica);
+        }
+        return new ReplicaRoutingDataSource(primaryDataSource, replicas, stickiness, healthCheckTimeout);
+    }
+
+    // O DataSource usado pelo JPA, JdbcTemplate e data.sql
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource replicaRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(replicaRoutingDataSource);
+    }
+}
@@ -0,0 +1,219 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * DataSource que envia as transações {@code @Transactional(readOnly = true)} para as réplicas de leitura
+ * e todo o resto (escritas e código fora de transação) para o primário.
+ *
+ * Só vai para a réplica o que roda em uma transação readOnly declarada: os métodos herdados do
+ * SimpleJpaRepository já são readOnly, mas as consultas declaradas nos repositórios (derivadas ou {@code @Query})
+ * chamadas fora de transação não são, e vão para o primário. As leituras que devem usar as réplicas
+ * abrem a transação explicitamente ({@code @Transactional(readOnly = true)} ou um TransactionTemplate readOnly).
+ *
+ * <ul>
+ *   <li>As réplicas são escolhidas em rodízio (round-robin), pulando as que falharam no último health check
+ *       ou ao abrir conexão. Sem nenhuma réplica saudável, a leitura vai para o primário.</li>
+ *   <li>Read-your-writes: depois que um usuário autenticado abre uma transação de escrita, as leituras dele
+ *       também vão para o primário durante {@code stickiness}, tempo suficiente para a réplica alcançar a escrita.
+ *       Leituras fora de transação vão para o primário mas não contam como escrita.</li>
+ * </ul>
+ *
+ * Precisa ficar atrás de um {@link org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}: o
+ * JpaTransactionManager pede a conexão antes de marcar a transação como readOnly, e o proxy só abre a
+ * conexão de verdade no primeiro comando SQL, quando a marcação já existe.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource implements Closeable {
+
+    private static final Logger log = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    private static final ThreadLocal<Boolean> FORCE_PRIMARY = new ThreadLocal<>();
+
+    private final DataSource primary;
+
+    private final List<Replica> replicas;
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    // Usuário (subject do JWT) -> até quando (System.nanoTime) as leituras dele vão para o primário
+    private final Map<String, Long> stickyUntil = new ConcurrentHashMap<>();
+
+    private final long stickinessNanos;
+
+    private final int healthCheckTimeoutSeconds;
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    Duration stickiness, Duration healthCheckTimeout) {
+        this.primary = primary;
+        this.replicas = replicas.entrySet().stream()
+                .map(entry -> new Replica(entry.getKey(), entry.getValue()))
+                .toList();
+        this.stickinessNanos = stickiness.toNanos();
+        this.healthCheckTimeoutSeconds = (int) Math.max(1, healthCheckTimeout.toSeconds());
+    }
+
+    /**
+     * Executa a leitura no primário mesmo dentro de uma transação readOnly. Usado quando uma leitura
+     * na réplica pode ter chegado antes da replicação (por exemplo, o login logo após o cadastro).
+     *
+     * Também é o caminho das cargas feitas na inicialização (os {@code afterSingletonsInstantiated} que montam
+     * estruturas em memória): elas rodam antes do servidor web, em uma ordem que não é garantida, e no perfil
+     * "replicas" local a réplica só enxerga os dados depois do {@link LocalReplicaLinker}. Uma réplica recém-ligada
+     * também pode estar atrasada, e o que for carregado nesse momento fica em memória até o próximo restart.
+     * Leituras que precisam de transação (ex.: Stream) abrem uma transação readOnly dentro da ação.
+     */
+    public static <T> T onPrimary(Supplier<T> action) {
+        var previous = FORCE_PRIMARY.get();
+        FORCE_PRIMARY.set(Boolean.TRUE);
+        try {
+            return action.get();
+        } finally {
+            if (previous == null) {
+                FORCE_PRIMARY.remove();
+            } else {
+                FORCE_PRIMARY.set(previous);
+            }
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+
+    private Connection route(ConnectionSource source) throws SQLException {
+        var subject = currentSubject();
+
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            // Primário. Só uma transação de escrita faz o autor passar a ler do primário por um tempo: código
+            // fora de transação (consultas dos repositórios sem @Transactional) não renova a marcação
+            if (subject != null && TransactionSynchronizationManager.isActualTransactionActive()) {
+                stickyUntil.put(subject, System.nanoTime() + stickinessNanos);
+            }
+            return source.open(primary);
+        }
+
+        if (Boolean.TRUE.equals(FORCE_PRIMARY.get()) || isSticky(subject)) {
+            return source.open(primary);
+        }
+
+        // Rodízio entre as réplicas saudáveis; se a réplica escolhida falhar, é marcada e tenta a próxima
+        var size = replicas.size();
+        var start = Math.floorMod(next.getAndIncrement(), Math.max(size, 1));
+        for (int i = 0; i < size; i++) {
+            var replica = replicas.get((start + i) % size);
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                return source.open(replica.dataSource);
+            } catch (SQLException e) {
+                replica.markUnhealthy(e);
+            }
+        }
+        return source.open(primary);
+    }
+
+    private boolean isSticky(String subject) {
+        if (subject == null) {
+            return false;
+        }
+        var until = stickyUntil.get(subject);
+        return until != null && until - System.nanoTime() > 0;
+    }
+
+    private static String currentSubject() {
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication instanceof JwtAuthenticationToken token ? token.getName() : null;
+    }
+
+    /**
+     * Testa cada réplica (as que caíram voltam ao rodízio quando respondem de novo) e remove
+     * as marcações de read-your-writes que já expiraram.
+     */
+    @Scheduled(fixedDelayString = "${replicas.health-check.interval:5000}")
+    public void checkHealth() {
+        for (var replica : replicas) {
+            try (var connection = replica.dataSource.getConnection()) {
+                if (connection.isValid(healthCheckTimeoutSeconds)) {
+                    replica.markHealthy();
+                } else {
+                    replica.markUnhealthy(null);
+                }
+            } catch (SQLException e) {
+                replica.markUnhealthy(e);
+            }
+        }
+
+        var now = System.nanoTime();
+        stickyUntil.values().removeIf(until -> until - now <= 0);
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (var replica : replicas) {
+            if (replica.dataSource instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+        if (primary instanceof Closeable closeable) {
+            closeable.close();
+        }
+    }
+
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection open(DataSource dataSource) throws SQLException;
+    }
+
+    private static class Replica {
+
+        private final String name;
+
+        private final DataSource dataSource;
+
+        private volatile boolean healthy = true;
+
+        Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+
+        void markHealthy() {
+            if (!healthy) {
+                log.info("Read replica {} is back", name);
+                healthy = true;
+            }
+        }
+
+        void markUnhealthy(SQLException e) {
+            if (healthy) {
+                log.warn("Read replica {} is unavailable, reading from the other replicas or the primary", name, e);
+                healthy = false;
+            }
+        }
+    }
+}
@@ -1,12 +1,22 @@
 package br.com.taina.copy_twitter.configuration;
 
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.ECKey;
 import com.nimbusds.jose.jwk.JWK;
-import com.nimbusds.jose.jwk.JWKSet;
 import com.nimbusds.jose.jwk.RSAKey;
-import com.nimbusds.jose.jwk.source.ImmutableJWKSet;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.proc.SecurityContext;
+import com.nimbusds.jose.proc.SingleKeyJWSKeySelector;
+import com.nimbusds.jwt.proc.DefaultJWTProcessor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
@@ -14,26 +24,59 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.core.DelegatingOAuth2TokenValidator;
+import org.springframework.security.oauth2.core.OAuth2TokenValidator;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtClaimValidator;
 import org.springframework.security.oauth2.jwt.JwtDecoder;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
+import org.springframework.security.oauth2.jwt.JwtValidators;
 import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
-import org.springframework.security.oauth2.jwt.NimbusJwtEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.KeyFactory;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
 import java.security.interfaces.RSAPrivateKey;
 import java.security.interfaces.RSAPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.time.Duration;
+import java.util.Base64;
 
 @Configuration
 @EnableWebSecurity
 @EnableMethodSecurity
 public class SecurityConfig {
 
+    private static final Logger log = LoggerFactory.getLogger(SecurityConfig.class);
+
     @Value("${jwt.public.key}")
     private RSAPublicKey publicKey;  // A chave pública para validar os tokens JWT
 
     @Value("${jwt.private.key}")
     private RSAPrivateKey privateKey;  // A chave privada para assinar os tokens JWT
 
+    @Value("${jwt.algorithm:RS256}")
+    private String jwtAlgorithm;  // RS256 (chaves RSA acima) ou ES256 (EC P-256: assinatura bem mais barata que a RSA)
+
+    @Value("${jwt.ec.private-key:#{null}}")
+    private Resource ecPrivateKey;  // Chave EC em PEM (PKCS#8) para o ES256; sem ela é gerada uma chave temporária
+
+    @Value("${jwt.ec.public-key:#{null}}")
+    private Resource ecPublicKey;  // Chave pública EC em PEM (X.509) correspondente
+
+    @Value("${security.bcrypt.strength:10}")
+    private int bcryptStrength;  // Custo do bcrypt (log2 das rodadas); ao aumentar, as senhas são refeitas no próximo login
+
+    @Value("${jwt.decoder.cache.max-entries:10000}")
+    private int decoderCacheMaxEntries;  // Quantidade máxima de tokens já verificados mantidos em memória
+
+    @Value("${jwt.decoder.cache.ttl:5m}")
+    private Duration decoderCacheTtl;  // Tempo máximo que um token verificado fica no cache
+
     /**
      * Método que configura a segurança da aplicação.
      *
@@ -46,6 +89,9 @@ public class SecurityConfig {
      *   acesso sem autenticação à rota de criação de usuários.
      * - O método `requestMatchers(HttpMethod.POST, "/login").permitAll()` permite
      *   acesso sem autenticação à rota de login.
+     * - As rotas `/token/refresh` e `/token/revoke` também são abertas: o refresh token enviado no corpo
+     *   é validado pelo próprio controller.
+     * - As rotas do actuator (`/actuator/**`) exigem o escopo ADMIN.
      * - Todas as outras rotas requerem autenticação (`anyRequest().authenticated()`).
      * - A proteção contra CSRF é desativada com `csrf().disable()`, o que é comum em APIs REST.
      * - A autenticação baseada em tokens JWT é configurada com `.oauth2ResourceServer(oauth2 -> oauth2.jwt())`.
@@ -59,6 +105,8 @@ public class SecurityConfig {
                 .authorizeHttpRequests(authorize -> authorize
                         .requestMatchers(HttpMethod.POST, "/users").permitAll()  // Permite acesso sem autenticação para a criação de usuários
                         .requestMatchers(HttpMethod.POST, "/login").permitAll()  // Permite acesso sem autenticação para login
+                        .requestMatchers(HttpMethod.POST, "/token/refresh", "/token/revoke").permitAll()  // O próprio refresh token (no corpo) é a credencial
+                        .requestMatchers("/actuator/**").hasAuthority("SCOPE_ADMIN")  // Métricas e health apenas para administradores
                         .anyRequest().authenticated())  // Todas as outras rotas requerem autenticação
                 .csrf(csrf -> csrf.disable())  // Desativa a proteção CSRF (útil para APIs REST)
                 .oauth2ResourceServer(oauth2 -> oauth2.jwt(Customizer.withDefaults()))  // Configura o servidor de recursos OAuth2 para usar JWT
@@ -67,40 +115,117 @@ public class SecurityConfig {
         return http.build();
     }
 
+    /**
+     * A chave usada para assinar e validar os tokens, conforme `jwt.algorithm`.
+     *
+     * Com ES256 e sem `jwt.ec.private-key`, a chave é gerada na inicialização: os tokens deixam de valer
+     * quando a aplicação reinicia e não servem entre instâncias diferentes (use só em desenvolvimento).
+     *
+     * @return a chave (JWK) com a parte privada.
+     */
+    @Bean
+    public JWK jwtSigningKey() throws Exception {
+        return switch (jwtAlgorithm) {
+            case "RS256" -> new RSAKey.Builder(this.publicKey).privateKey(privateKey).build();  // Cria a chave RSA a ser usada para assinatura do JWT
+            case "ES256" -> {
+                if (ecPrivateKey == null || ecPublicKey == null) {
+                    log.warn("jwt.algorithm=ES256 without jwt.ec.private-key/public-key: using a temporary key, tokens will not survive a restart");
+                    yield new ECKeyGenerator(Curve.P_256).keyIDFromThumbprint(true).generate();
+                }
+                var keyFactory = KeyFactory.getInstance("EC");
+                var ecPublic = (ECPublicKey) keyFactory.generatePublic(new X509EncodedKeySpec(readPem(ecPublicKey)));
+                var ecPrivate = (ECPrivateKey) keyFactory.generatePrivate(new PKCS8EncodedKeySpec(readPem(ecPrivateKey)));
+                yield new ECKey.Builder(Curve.P_256, ecPublic).privateKey(ecPrivate).keyIDFromThumbprint().build();
+            }
+            default -> throw new IllegalStateException("Unsupported jwt.algorithm: " + jwtAlgorithm);
+        };
+    }
+
+    // Conteúdo Base64 de um arquivo PEM, sem as linhas BEGIN/END
+    private static byte[] readPem(Resource resource) throws IOException {
+        var pem = resource.getContentAsString(StandardCharsets.US_ASCII)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(pem);
+    }
+
     /**
      * Método que configura o JwtDecoder, utilizado para decodificar e validar os tokens JWT.
      *
      * O JwtDecoder usa a chave pública configurada para validar a assinatura do JWT.
+     * Os tokens já validados ficam em um cache ({@link CachingJwtDecoder}), assim as requisições
+     * seguintes com o mesmo token não repetem a verificação da assinatura.
+     * O tempo total fica na métrica `jwt.decode` e o da verificação da assinatura em `jwt.verify`.
      *
      * @return o JwtDecoder configurado para usar a chave pública.
      */
     @Bean
-    public JwtDecoder jwtDecoder() {
-        return NimbusJwtDecoder.withPublicKey(publicKey).build();  // Configura o JwtDecoder com a chave pública para validação dos tokens
+    public JwtDecoder jwtDecoder(MeterRegistry meterRegistry, JWK jwtSigningKey) throws JOSEException {
+        // Tokens de acesso: um refresh token não pode ser usado no lugar deles
+        var nimbusDecoder = signatureDecoder(jwtSigningKey, new JwtClaimValidator<>(
+                RefreshTokenDecoder.TOKEN_USE_CLAIM, tokenUse -> !RefreshTokenDecoder.REFRESH.equals(tokenUse)));
+        var verifyTimer = meterRegistry.timer("jwt.verify");
+        var decodeTimer = meterRegistry.timer("jwt.decode");
+        JwtDecoder timedNimbusDecoder = token -> verifyTimer.record(() -> nimbusDecoder.decode(token));
+        var cachingDecoder = new CachingJwtDecoder(timedNimbusDecoder, decoderCacheMaxEntries, decoderCacheTtl);
+        return token -> decodeTimer.record(() -> cachingDecoder.decode(token));
+    }
+
+    /**
+     * Decoder dos refresh tokens (POST /token/refresh): mesma chave, mas só aceita tokens com token_use=refresh.
+     *
+     * @return o decoder dos refresh tokens.
+     */
+    @Bean
+    public RefreshTokenDecoder refreshTokenDecoder(JWK jwtSigningKey) throws JOSEException {
+        return new RefreshTokenDecoder(signatureDecoder(jwtSigningKey, new JwtClaimValidator<>(
+                RefreshTokenDecoder.TOKEN_USE_CLAIM, RefreshTokenDecoder.REFRESH::equals)));
+    }
+
+    // Decoder que verifica a assinatura com a chave pública (RSA ou EC) e aplica as validações padrão
+    // (exp/nbf) mais a validação do tipo de token
+    private NimbusJwtDecoder signatureDecoder(JWK jwtSigningKey, OAuth2TokenValidator<Jwt> tokenUseValidator) throws JOSEException {
+        NimbusJwtDecoder decoder;
+        if (jwtSigningKey instanceof ECKey ecKey) {
+            // Só aceita ES256 com a chave pública EC; exp/nbf são validados pelos validadores do Spring
+            var jwtProcessor = new DefaultJWTProcessor<SecurityContext>();
+            jwtProcessor.setJWSKeySelector(new SingleKeyJWSKeySelector<>(JWSAlgorithm.ES256, ecKey.toECPublicKey()));
+            jwtProcessor.setJWTClaimsSetVerifier((claims, context) -> {
+            });
+            decoder = new NimbusJwtDecoder(jwtProcessor);
+        } else {
+            decoder = NimbusJwtDecoder.withPublicKey(publicKey).build();  // Configura o JwtDecoder com a chave pública para validação dos tokens
+        }
+        decoder.setJwtValidator(new DelegatingOAuth2TokenValidator<>(JwtValidators.createDefault(), tokenUseValidator));
+        return decoder;
     }
 
     /**
      * Método que configura o JwtEncoder, utilizado para criar e assinar novos tokens JWT.
      *
      * O JwtEncoder utiliza a chave privada para assinar os tokens, garantindo a integridade e autenticidade.
+     * O assinador e o cabeçalho são montados uma vez só ({@link PrebuiltJwtEncoder}).
+     * O tempo de cada assinatura fica na métrica `jwt.encode`.
      *
      * @return o JwtEncoder configurado para assinar tokens com a chave privada.
      */
     @Bean
-    public JwtEncoder jwtEncoder() {
-        JWK jwk = new RSAKey.Builder(this.publicKey).privateKey(privateKey).build();  // Cria a chave RSA a ser usada para assinatura do JWT
-        var jwks = new ImmutableJWKSet<>(new JWKSet(jwk));  // Cria um conjunto imutável de JWKs com a chave RSA
-        return new NimbusJwtEncoder(jwks);  // Retorna o JwtEncoder configurado com a chave RSA para assinatura de JWTs
+    public JwtEncoder jwtEncoder(MeterRegistry meterRegistry, JWK jwtSigningKey) {
+        var encoder = new PrebuiltJwtEncoder(jwtSigningKey);
+        var encodeTimer = meterRegistry.timer("jwt.encode");
+        return parameters -> encodeTimer.record(() -> encoder.encode(parameters));
     }
 
     /**
      * Método que configura o BCryptPasswordEncoder, utilizado para criptografar senhas de forma segura.
      *
+     * O custo vem da propriedade `security.bcrypt.strength`.
+     *
      * @return o BCryptPasswordEncoder configurado.
      */
     @Bean
     public BCryptPasswordEncoder bCryptPasswordEncoder() {
-        return new BCryptPasswordEncoder();  // Retorna uma instância do BCryptPasswordEncoder, que é utilizado para criptografar senhas
+        return new BCryptPasswordEncoder(bcryptStrength);  // Retorna uma instância do BCryptPasswordEncoder, que é utilizado para criptografar senhas
     }
 
 }
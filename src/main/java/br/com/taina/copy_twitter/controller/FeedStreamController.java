@@ -0,0 +1,31 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.service.FeedBroadcaster;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+@RestController
+public class FeedStreamController {
+
+    private final FeedBroadcaster feedBroadcaster;
+
+    public FeedStreamController(FeedBroadcaster feedBroadcaster) {
+        this.feedBroadcaster = feedBroadcaster;
+    }
+
+    // Feed ao vivo (Server-Sent Events): em vez de ficar consultando GET /feed?page=0, o cliente
+    // mantém esta conexão aberta e recebe os eventos "tweet" (FeedItemDto), "delete" ({tweetId})
+    // e "resync" (ficou para trás e deve recarregar o feed).
+    @GetMapping(value = "/feed/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter stream() {
+        var emitter = feedBroadcaster.subscribe();
+        if (emitter == null) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return emitter;
+    }
+}
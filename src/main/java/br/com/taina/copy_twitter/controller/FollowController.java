@@ -0,0 +1,80 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.Follow;
+import br.com.taina.copy_twitter.repository.FollowRepository;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import br.com.taina.copy_twitter.service.HomeTimelineService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.UUID;
+
+@RestController
+public class FollowController {
+
+    private final FollowRepository followRepository;
+
+    private final UserRepository userRepository;
+
+    private final HomeTimelineService homeTimelineService;
+
+    public FollowController(FollowRepository followRepository,
+                            UserRepository userRepository,
+                            HomeTimelineService homeTimelineService) {
+        this.followRepository = followRepository;
+        this.userRepository = userRepository;
+        this.homeTimelineService = homeTimelineService;
+    }
+
+    @PostMapping("/users/{username}/follow")
+    @Transactional
+    public ResponseEntity<Void> follow(@PathVariable("username") String username,
+                                       JwtAuthenticationToken token) {
+
+        var followerId = UUID.fromString(token.getName());
+        var followedId = findUserId(username);
+
+        // Não é possível seguir a si mesmo
+        if (followedId.equals(followerId)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
+
+        // Seguir quem já é seguido não faz nada
+        if (!followRepository.existsByFollower_UserIdAndFollowed_UserId(followerId, followedId)) {
+            // getReferenceById não consulta o banco, só cria uma referência para a chave estrangeira
+            followRepository.save(new Follow(
+                    userRepository.getReferenceById(followerId),
+                    userRepository.getReferenceById(followedId)));
+            homeTimelineService.invalidate(followerId);
+        }
+
+        return ResponseEntity.ok().build();
+    }
+
+    @DeleteMapping("/users/{username}/follow")
+    @Transactional
+    public ResponseEntity<Void> unfollow(@PathVariable("username") String username,
+                                         JwtAuthenticationToken token) {
+
+        var followerId = UUID.fromString(token.getName());
+        var followedId = findUserId(username);
+
+        if (followRepository.deleteFollow(followerId, followedId) > 0) {
+            homeTimelineService.invalidate(followerId);
+        }
+
+        return ResponseEntity.ok().build();
+    }
+
+    private UUID findUserId(String username) {
+        return userRepository.findUserIdByUsername(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+    }
+}
@@ -0,0 +1,85 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.dto.FeedDto;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.dto.UserSummaryDto;
+import br.com.taina.copy_twitter.repository.ReactiveFeedRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+// Caminho de leitura alternativo, não bloqueante: o Spring MVC trata o Mono/Flux como uma resposta
+// assíncrona, então a thread do Tomcat é devolvida enquanto a consulta R2DBC está em andamento.
+// As rotas têm o mesmo formato de resposta das equivalentes em TweetController.
+@RestController
+public class ReactiveFeedController {
+
+    private final ReactiveFeedRepository reactiveFeedRepository;
+
+    private final int feedMaxPageSize;
+
+    public ReactiveFeedController(ReactiveFeedRepository reactiveFeedRepository,
+                                  @Value("${feed.max-page-size:100}") int feedMaxPageSize) {
+        this.reactiveFeedRepository = reactiveFeedRepository;
+        this.feedMaxPageSize = feedMaxPageSize;
+    }
+
+    @GetMapping("/reactive/feed")
+    public Mono<FeedDto> feed(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+
+        var error = validatePage(page, pageSize);
+        if (error != null) {
+            return Mono.error(error);
+        }
+
+        // A página e a contagem são consultadas em paralelo, em conexões diferentes do pool
+        return Mono.zip(reactiveFeedRepository.findFeedPage(page, pageSize).collectList(),
+                        reactiveFeedRepository.countTweets())
+                .map(result -> {
+                    var totalElements = result.getT2();
+                    var totalPages = (int) ((totalElements + pageSize - 1) / pageSize);
+                    return new FeedDto(result.getT1(), page, pageSize, totalPages, totalElements);
+                });
+    }
+
+    // Os itens são escritos um por linha (NDJSON) à medida que chegam do banco
+    @GetMapping(value = "/reactive/feed/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FeedItemDto> feedStream(
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+
+        var error = validatePage(page, pageSize);
+        if (error != null) {
+            return Flux.error(error);
+        }
+        return reactiveFeedRepository.findFeedPage(page, pageSize);
+    }
+
+    @GetMapping("/reactive/users/{username}")
+    public Mono<UserSummaryDto> user(@PathVariable("username") String username) {
+        return reactiveFeedRepository.findUserByUsername(username)
+                .switchIfEmpty(Mono.error(new ResponseStatusException(HttpStatus.NOT_FOUND)));
+    }
+
+    // Mesmos limites do /feed: a página inteira é lida para a memória (collectList), e o OFFSET
+    // (page * pageSize) precisa caber em um int
+    private ResponseStatusException validatePage(int page, int pageSize) {
+        if (page < 0 || pageSize < 1 || pageSize > feedMaxPageSize) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + feedMaxPageSize);
+        }
+        if ((long) page * pageSize > Integer.MAX_VALUE) {
+            return new ResponseStatusException(HttpStatus.BAD_REQUEST, "page is too large");
+        }
+        return null;
+    }
+}
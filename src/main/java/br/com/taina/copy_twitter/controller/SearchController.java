@@ -0,0 +1,78 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.dto.CursorFeedDto;
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import br.com.taina.copy_twitter.service.TweetSearchIndex;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+public class SearchController {
+
+    private final TweetSearchIndex tweetSearchIndex;
+
+    private final TweetRepository tweetRepository;
+
+    private final int maxPageSize;
+
+    public SearchController(TweetSearchIndex tweetSearchIndex,
+                            TweetRepository tweetRepository,
+                            @Value("${feed.max-page-size:100}") int maxPageSize) {
+        this.tweetSearchIndex = tweetSearchIndex;
+        this.tweetRepository = tweetRepository;
+        this.maxPageSize = maxPageSize;
+    }
+
+    // Busca os tweets que contêm todas as palavras de `q`, do mais recente para o mais antigo (ordem do feed).
+    // O índice em memória devolve os ids; o banco só é consultado para montar os itens da página.
+    // Paginada pelo mesmo cursor do /feed/cursor.
+    @GetMapping("/search")
+    public ResponseEntity<CursorFeedDto> search(
+            @RequestParam("q") String query,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+
+        if (query.isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + maxPageSize);
+        }
+
+        FeedCursor cursor = null;
+        if (before != null && !before.isBlank()) {
+            try {
+                cursor = FeedCursor.decode(before.trim());
+            } catch (IllegalArgumentException e) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+        }
+
+        // Um tweet a mais só para saber se existe uma próxima página
+        var hits = tweetSearchIndex.search(query, cursor, pageSize + 1);
+
+        String nextCursor = null;
+        if (hits.size() > pageSize) {
+            hits = hits.subList(0, pageSize);
+            nextCursor = hits.get(pageSize - 1).encode();
+        }
+
+        var ids = hits.stream().map(FeedCursor::tweetId).toList();
+        List<FeedItemDto> items = ids.isEmpty() ? List.of() : tweetRepository.findFeedItemsByIds(ids)
+                .stream()
+                .sorted(FeedItemDto.NEWEST_FIRST)
+                .toList();
+
+        return ResponseEntity.ok(new CursorFeedDto(items, pageSize, nextCursor));
+    }
+}
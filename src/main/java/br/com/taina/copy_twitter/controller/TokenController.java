@@ -1,83 +1,217 @@
 package br.com.taina.copy_twitter.controller;
 
+import br.com.taina.copy_twitter.configuration.RefreshTokenDecoder;
 import br.com.taina.copy_twitter.dto.LoginRequestDto;
 import br.com.taina.copy_twitter.dto.LoginResponseDto;
-import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.dto.RefreshTokenRequestDto;
 import br.com.taina.copy_twitter.repository.UserRepository;
+import br.com.taina.copy_twitter.service.LoginRateLimiter;
+import br.com.taina.copy_twitter.service.PasswordHashingService;
+import br.com.taina.copy_twitter.service.TokenRevocationList;
+import br.com.taina.copy_twitter.service.UserCredentialsCache;
+import br.com.taina.copy_twitter.service.UserCredentialsCache.Credentials;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.security.oauth2.jwt.JwtClaimsSet;
 import org.springframework.security.oauth2.jwt.JwtEncoder;
 import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.security.oauth2.jwt.JwtException;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.time.Duration;
 import java.time.Instant;
-import java.util.stream.Collectors;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class TokenController {
 
+    private static final Logger log = LoggerFactory.getLogger(TokenController.class);
+
     // será obrigatoriamente injetada no momento da criação da instância
     // e que o valor dessas dependências não poderá ser alterado depois.
     private final JwtEncoder jwtEncoder;
 
     private final UserRepository userRepository;
 
-    private BCryptPasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+
+    private final LoginRateLimiter loginRateLimiter;
+
+    private final UserCredentialsCache userCredentialsCache;
+
+    private final RefreshTokenDecoder refreshTokenDecoder;
+
+    private final TokenRevocationList tokenRevocationList;
+
+    private final Duration accessTokenTtl;
+
+    private final Duration refreshTokenTtl;
 
     public TokenController(JwtEncoder jwtEncoder,
                            UserRepository userRepository,
-                           BCryptPasswordEncoder passwordEncoder) {
+                           PasswordHashingService passwordHashingService,
+                           LoginRateLimiter loginRateLimiter,
+                           UserCredentialsCache userCredentialsCache,
+                           RefreshTokenDecoder refreshTokenDecoder,
+                           TokenRevocationList tokenRevocationList,
+                           @Value("${jwt.access-token.ttl:5m}") Duration accessTokenTtl,
+                           @Value("${jwt.refresh-token.ttl:30d}") Duration refreshTokenTtl) {
         this.jwtEncoder = jwtEncoder;
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.loginRateLimiter = loginRateLimiter;
+        this.userCredentialsCache = userCredentialsCache;
+        this.refreshTokenDecoder = refreshTokenDecoder;
+        this.tokenRevocationList = tokenRevocationList;
+        this.accessTokenTtl = accessTokenTtl;
+        this.refreshTokenTtl = refreshTokenTtl;
     }
 
 
-    // Recebe o request(Username e senha) e o response retorna o token e a expiração
+    // Recebe o request(Username e senha) e o response retorna o token e a expiração.
+    // A verificação da senha (bcrypt) roda no pool do PasswordHashingService; a thread da
+    // requisição é liberada enquanto isso e a resposta é enviada quando o CompletableFuture termina.
     @PostMapping("/login")
-    @Transactional
-    public ResponseEntity<LoginResponseDto> login(@RequestBody LoginRequestDto loginRequest){
+    public CompletableFuture<ResponseEntity<LoginResponseDto>> login(@RequestBody LoginRequestDto loginRequest,
+                                                                     HttpServletRequest request){
+
+        // Muitas tentativas do mesmo IP, ou muitas senhas erradas para o mesmo usuário: 429 sem nem consultar o banco
+        if (!loginRateLimiter.tryAcquire(loginRequest.username(), request.getRemoteAddr())) {
+            throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS);
+        }
 
-        var user = userRepository.findByUsername(loginRequest.username());
+        // id, hash e escopos vêm do cache de credenciais; o banco só é consultado no "miss"
+        var user = userCredentialsCache.get(loginRequest.username());
 
-        // Se o usuário não existir e a senha não for correta ...
-        if(user.isEmpty() || !user.get().isLoginCorrect(loginRequest, passwordEncoder)){
+        // Se o usuário não existir ...
+        if(user.isEmpty()){
+            loginRateLimiter.recordFailure(loginRequest.username());
             throw new BadCredentialsException("User or password is invalid!");
         }
+
+        return passwordHashingService.matches(loginRequest.password(), user.get().passwordHash())
+                .thenApply(passwordMatches -> {
+                    // ... ou a senha não for correta
+                    if (!passwordMatches) {
+                        loginRateLimiter.recordFailure(loginRequest.username());
+                        throw new BadCredentialsException("User or password is invalid!");
+                    }
+                    rehashIfNeeded(user.get(), loginRequest.password());
+                    return ResponseEntity.ok(createToken(user.get()));
+                });
+    }
+
+    // Se o custo do bcrypt configurado aumentou, aproveita a senha em texto (só disponível no login)
+    // para gravar um hash novo. Roda em segundo plano e não atrasa a resposta.
+    private void rehashIfNeeded(Credentials user, String rawPassword) {
+        if (!passwordHashingService.needsRehash(user.passwordHash())) {
+            return;
+        }
+        passwordHashingService.encode(rawPassword)
+                .thenAccept(hash -> {
+                    userRepository.updatePassword(user.userId(), hash);
+                    userCredentialsCache.invalidate(user.username());
+                })
+                .exceptionally(e -> {
+                    log.warn("Failed to rehash password for user {}", user.userId(), e);
+                    return null;
+                });
+    }
+
+    // Troca um refresh token válido (e não revogado) por um novo token de acesso, sem senha e sem bcrypt.
+    // Os escopos vêm do cache de credenciais, então uma mudança de roles vale já no próximo refresh.
+    @PostMapping("/token/refresh")
+    public ResponseEntity<LoginResponseDto> refresh(@RequestBody RefreshTokenRequestDto refreshRequest) {
+
+        var refreshToken = decodeRefreshToken(refreshRequest.refreshToken());
+
+        // A revogação é consultada em memória, sem ir ao banco
+        if (refreshToken.getId() == null || tokenRevocationList.isRevoked(refreshToken.getId())) {
+            throw new BadCredentialsException("Refresh token is invalid!");
+        }
+
+        var user = userCredentialsCache.get(refreshToken.getClaimAsString("username"))
+                .filter(credentials -> credentials.userId().toString().equals(refreshToken.getSubject()))
+                .orElseThrow(() -> new BadCredentialsException("Refresh token is invalid!"));
+
+        var now = Instant.now();
+        return ResponseEntity.ok(new LoginResponseDto(
+                accessToken(user, now),
+                accessTokenTtl.toSeconds(),
+                refreshRequest.refreshToken(),
+                Duration.between(now, refreshToken.getExpiresAt()).toSeconds()));
+    }
+
+    // Revoga um refresh token (logout). Um token inválido ou já vencido não precisa ser revogado.
+    @PostMapping("/token/revoke")
+    public ResponseEntity<Void> revoke(@RequestBody RefreshTokenRequestDto revokeRequest) {
+        try {
+            var refreshToken = refreshTokenDecoder.decode(revokeRequest.refreshToken());
+            tokenRevocationList.revoke(refreshToken.getId(), refreshToken.getExpiresAt());
+        } catch (JwtException e) {
+            // nada a revogar
+        }
+        return ResponseEntity.ok().build();
+    }
+
+    private Jwt decodeRefreshToken(String token) {
+        try {
+            return refreshTokenDecoder.decode(token);
+        } catch (JwtException e) {
+            throw new BadCredentialsException("Refresh token is invalid!", e);
+        }
+    }
+
+    private LoginResponseDto createToken(Credentials user) {
         var now = Instant.now();
-        var expiresIn = 1440L;
 
-        // Obtém os papéis (roles) associados ao usuário
-        //Caso o usuário tenha mais de uma role , vai juntando esses escopos
-        var scopes = user.get().getRoles()
-                // Transforma o conjunto de papéis em um fluxo (stream)
-                .stream()
-                // Para cada papel (role) no fluxo, extrai o nome do papel (Role::getName)
-                .map(Role::getName)
-                // Junta todos os nomes dos papéis em uma única string, separando-os por espaço.
-                .collect(Collectors.joining(" "));
+        // O refresh token dura bem mais e só serve para pedir novos tokens de acesso em POST /token/refresh.
+        // O jti identifica o token para a revogação.
+        var refreshClaims = JwtClaimsSet.builder()
+                .issuer("mybackend")
+                .subject(user.userId().toString())
+                .id(UUID.randomUUID().toString())
+                .issuedAt(now)
+                .expiresAt(now.plus(refreshTokenTtl))
+                .claim(RefreshTokenDecoder.TOKEN_USE_CLAIM, RefreshTokenDecoder.REFRESH)
+                .claim("username", user.username())
+                .build();
+        var refreshToken = jwtEncoder.encode(JwtEncoderParameters.from(refreshClaims)).getTokenValue();
 
+        // Retorna o JWT gerado e o tempo de expiração.
+        return new LoginResponseDto(accessToken(user, now), accessTokenTtl.toSeconds(),
+                refreshToken, refreshTokenTtl.toSeconds());
+    }
+
+    // Token de acesso de curta duração (jwt.access-token.ttl)
+    private String accessToken(Credentials user, Instant now) {
+
+        // Os escopos (roles do usuário separadas por espaço) já vêm prontos do cache de credenciais
+        var scopes = user.scopes();
 
         // Cria um objeto JwtClaimsSet, que contém as informações (claims) do JWT (JSON Web Token).
         var claims = JwtClaimsSet.builder()
                 // Define o emissor (issuer) do JWT, que neste caso é a string "mybackend".
                 .issuer("mybackend")
                 // Define o sujeito (subject) do JWT, que neste caso é o ID do usuário convertido para string.
-                .subject(user.get().getUserId().toString())
+                .subject(user.userId().toString())
                 .issuedAt(now)
-                .expiresAt(now.plusSeconds(expiresIn))
+                .expiresAt(now.plus(accessTokenTtl))
                 .claim("scope", scopes)  // Adiciona um claim "scope" no JWT com as permissões ou papéis do usuário.
+                .claim("username", user.username())  // O username evita consultar o banco para montar os itens do feed
                 .build();
 
         // Codifica o JwtClaimsSet em um JWT usando o jwtEncoder. O resultado é um token JWT.
-        var jwtValue = jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
-
-        // Retorna uma resposta HTTP com o JWT gerado e o tempo de expiração.
-        return ResponseEntity.ok(new LoginResponseDto(jwtValue, expiresIn));
+        return jwtEncoder.encode(JwtEncoderParameters.from(claims)).getTokenValue();
     }
 }
@@ -0,0 +1,34 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.dto.TrendDto;
+import br.com.taina.copy_twitter.service.TrendingTopics;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+
+@RestController
+public class TrendController {
+
+    private final TrendingTopics trendingTopics;
+
+    public TrendController(TrendingTopics trendingTopics) {
+        this.trendingTopics = trendingTopics;
+    }
+
+    // Hashtags em alta na última hora (window=1h) ou nas últimas 24 horas (window=24h).
+    // A lista já vem calculada da memória; o banco não é consultado.
+    @GetMapping("/trends")
+    public ResponseEntity<List<TrendDto>> trends(@RequestParam(value = "window", defaultValue = "1h") String window) {
+        var trends = switch (window) {
+            case "1h" -> trendingTopics.trends(TrendingTopics.Window.HOUR);
+            case "24h" -> trendingTopics.trends(TrendingTopics.Window.DAY);
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "window must be 1h or 24h");
+        };
+        return ResponseEntity.ok(trends);
+    }
+}
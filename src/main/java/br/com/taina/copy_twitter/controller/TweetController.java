@@ -1,20 +1,38 @@
 package br.com.taina.copy_twitter.controller;
 
+import br.com.taina.copy_twitter.dto.BatchTweetDto;
+import br.com.taina.copy_twitter.dto.BatchTweetItemDto;
 import br.com.taina.copy_twitter.dto.CreateTweetDto;
+import br.com.taina.copy_twitter.dto.CreateTweetResponseDto;
+import br.com.taina.copy_twitter.dto.CursorFeedDto;
+import br.com.taina.copy_twitter.dto.FeedCursor;
 import br.com.taina.copy_twitter.dto.FeedDto;
-import br.com.taina.copy_twitter.dto.FeedItemDto;
 import br.com.taina.copy_twitter.entity.Role;
 import br.com.taina.copy_twitter.entity.Tweet;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
 import br.com.taina.copy_twitter.repository.TweetRepository;
 import br.com.taina.copy_twitter.repository.UserRepository;
+import br.com.taina.copy_twitter.service.AsyncTweetWriter;
+import br.com.taina.copy_twitter.service.FeedCache;
+import br.com.taina.copy_twitter.service.HomeTimelineService;
+import br.com.taina.copy_twitter.service.OffHeapFeedWindow;
+import br.com.taina.copy_twitter.service.TweetPartitions;
+import br.com.taina.copy_twitter.service.TweetTextParser;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 @RestController
@@ -24,74 +42,311 @@ public class TweetController {
 
     private final UserRepository userRepository;
 
-    public TweetController(TweetRepository tweetRepository, UserRepository userRepository) {
+    private final HomeTimelineService homeTimelineService;
+
+    private final FeedCache feedCache;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final AsyncTweetWriter asyncTweetWriter;
+
+    private final TweetPartitions tweetPartitions;
+
+    private final OffHeapFeedWindow offHeapFeedWindow;
+
+    private final int batchMaxSize;
+
+    private final int feedMaxPageSize;
+
+    // Leituras do feed: só o carregamento (miss do cache) abre a transação, que no perfil "replicas" vai para uma réplica
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public TweetController(TweetRepository tweetRepository,
+                           UserRepository userRepository,
+                           HomeTimelineService homeTimelineService,
+                           FeedCache feedCache,
+                           ApplicationEventPublisher eventPublisher,
+                           AsyncTweetWriter asyncTweetWriter,
+                           TweetPartitions tweetPartitions,
+                           OffHeapFeedWindow offHeapFeedWindow,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${tweets.batch.max-size:1000}") int batchMaxSize,
+                           @Value("${feed.max-page-size:100}") int feedMaxPageSize) {
         this.tweetRepository = tweetRepository;
         this.userRepository = userRepository;
+        this.homeTimelineService = homeTimelineService;
+        this.feedCache = feedCache;
+        this.eventPublisher = eventPublisher;
+        this.asyncTweetWriter = asyncTweetWriter;
+        this.tweetPartitions = tweetPartitions;
+        this.offHeapFeedWindow = offHeapFeedWindow;
+        this.batchMaxSize = batchMaxSize;
+        this.feedMaxPageSize = feedMaxPageSize;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
     @GetMapping("/feed")
-    public ResponseEntity<FeedDto> feed(
+    public ResponseEntity<?> feed(
             @RequestParam(value = "page", defaultValue = "0") int page,
-            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
+            @RequestParam(value = "count", defaultValue = "true") boolean count) {
+
+        if (page < 0 || pageSize < 1 || pageSize > feedMaxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + feedMaxPageSize);
+        }
+
+        // Com a janela fora do heap ligada, as páginas mais recentes saem direto dos bytes guardados nela.
+        // O COUNT(*) sem filtro é respondido pelo H2 sem varrer a tabela.
+        if (offHeapFeedWindow.isEnabled()) {
+            var json = offHeapFeedWindow.renderPage(page, pageSize, count ? tweetRepository::count : null);
+            if (json != null) {
+                return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+            }
+        }
+
+        // As páginas mais acessadas são servidas do cache em memória; o banco só é consultado no "miss"
+        var key = new FeedCache.Key(FeedCache.Kind.OFFSET, String.valueOf(page), pageSize, count);
+        return ResponseEntity.ok(feedCache.getOrLoad(key,
+                () -> readOnlyTransactionTemplate.execute(status -> loadFeed(page, pageSize, count)), FeedDto::feedItens));
+    }
+
+    private FeedDto loadFeed(int page, int pageSize, boolean count) {
 
-        // Busca todos os tweets do banco de dados, paginados e ordenados pelo timestamp de criação em ordem decrescente
-        var tweets = tweetRepository.findAll(
-                        PageRequest.of(page, pageSize, Sort.Direction.DESC, "creationTimestamp"))
+        // A ordenação (timestamp de criação decrescente) já está na consulta do repositório
+        var pageRequest = PageRequest.of(page, pageSize);
 
-                // Converte cada tweet encontrado em um objeto FeedItemDto (DTO usado para exibir os tweets no feed)
-                .map(tweet -> new FeedItemDto(
-                        tweet.getTweetId(),
-                        tweet.getContent(),
-                        tweet.getUser().getUsername() // Nome do usuário que postou o tweet
-                ));
+        // Sem contagem: usa um Slice, que não executa o COUNT(*). Os totais voltam como -1.
+        if (!count) {
+            var slice = tweetRepository.findFeedSlice(pageRequest);
+            return new FeedDto(slice.getContent(), page, pageSize, -1, -1L);
+        }
+
+        // Busca os tweets já projetados em FeedItemDto (um único SELECT com JOIN no usuário),
+        // paginados e ordenados pelo timestamp de criação em ordem decrescente
+        var tweets = tweetRepository.findFeedPage(pageRequest);
 
-        return ResponseEntity.ok(new FeedDto(
+        return new FeedDto(
                 tweets.getContent(), // Lista dos tweets formatados como FeedItemDto
                 page, // Página atual
                 pageSize, // Tamanho da página
                 tweets.getTotalPages(), // Total de páginas disponíveis
                 tweets.getTotalElements() // Total de tweets no banco
-        ));
+        );
+    }
+
+    // Feed paginado por cursor: o custo de cada página não depende de quão fundo o cliente está,
+    // porque a consulta faz um "seek" no índice em vez de pular linhas com OFFSET.
+    @GetMapping("/feed/cursor")
+    public ResponseEntity<CursorFeedDto> cursorFeed(
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize) {
+
+        if (pageSize < 1 || pageSize > feedMaxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + feedMaxPageSize);
+        }
+
+        var position = before == null ? "" : before.trim();
+        var key = new FeedCache.Key(FeedCache.Kind.CURSOR, position, pageSize, false);
+        return ResponseEntity.ok(feedCache.getOrLoad(key,
+                () -> readOnlyTransactionTemplate.execute(status -> loadCursorFeed(position, pageSize)), CursorFeedDto::feedItens));
+    }
+
+    private CursorFeedDto loadCursorFeed(String before, int pageSize) {
+
+        // Busca um tweet a mais do que o necessário só para saber se existe uma próxima página.
+        // As partições (dias) são lidas da mais nova para a mais antiga; as arquivadas vêm do disco.
+        var cursor = before.isEmpty() ? null : decodeCursor(before);
+        var tweets = tweetPartitions.feedBefore(cursor, pageSize + 1);
+
+        String nextCursor = null;
+        if (tweets.size() > pageSize) {
+            tweets = tweets.subList(0, pageSize);
+            var last = tweets.get(pageSize - 1);
+            nextCursor = new FeedCursor(last.creationTimestamp(), last.tweetId()).encode();
+        }
+
+        return new CursorFeedDto(tweets, pageSize, nextCursor);
+    }
+
+    // Timeline "home" do usuário autenticado: os tweets dele e de quem ele segue.
+    // Lida da timeline materializada em memória, sem JOIN com as relações de follow.
+    // Paginada pelo mesmo cursor do /feed/cursor.
+    @GetMapping("/timeline")
+    public ResponseEntity<CursorFeedDto> timeline(
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "pageSize", defaultValue = "10") int pageSize,
+            JwtAuthenticationToken token) {
+
+        if (pageSize < 1 || pageSize > feedMaxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "pageSize must be between 1 and " + feedMaxPageSize);
+        }
+
+        var cursor = before == null || before.isBlank() ? null : decodeCursor(before.trim());
+        return ResponseEntity.ok(homeTimelineService.read(UUID.fromString(token.getName()), cursor, pageSize));
+    }
+
+    private boolean isAdmin(JwtAuthenticationToken token) {
+        return token.getAuthorities()
+                .stream()
+                .anyMatch(authority -> authority.getAuthority().equals("SCOPE_" + Role.Values.ADMIN.name()));
+    }
+
+    // O username vem do claim "username" do token; tokens emitidos antes desse claim existir
+    // caem na consulta ao banco (só a coluna username)
+    private String username(JwtAuthenticationToken token, UUID userId) {
+        var username = token.getToken().getClaimAsString("username");
+        if (username != null) {
+            return username;
+        }
+        return userRepository.findUsernameByUserId(userId).orElse(null);
+    }
+
+    // Cursor inválido é erro do cliente (400), não do servidor
+    private FeedCursor decodeCursor(String cursor) {
+        try {
+            return FeedCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
     }
 
 
     @PostMapping("/tweets")
-    public ResponseEntity<Void> createTweet(@RequestBody CreateTweetDto createTweetDto,
-                                            JwtAuthenticationToken token) { // Recebe o DTO do tweet e o token JWT do usuário autenticado
+    public ResponseEntity<CreateTweetResponseDto> createTweet(@RequestBody CreateTweetDto createTweetDto,
+                                                              JwtAuthenticationToken token) { // Recebe o DTO do tweet e o token JWT do usuário autenticado
+
+        if (createTweetDto.content() == null || createTweetDto.content().isBlank()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "content is required");
+        }
+        if (createTweetDto.content().length() > Tweet.MAX_CONTENT_LENGTH) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "content must have at most " + Tweet.MAX_CONTENT_LENGTH + " characters");
+        }
+
+        var userId = UUID.fromString(token.getName());
+
+        // Escrita assíncrona: o tweet vai para a fila e a resposta (202) já leva o id reservado
+        if (asyncTweetWriter.isEnabled()) {
+            var tweetId = asyncTweetWriter.submit(userId, username(token, userId), createTweetDto.content());
+            if (tweetId == null) {
+                throw new ResponseStatusException(HttpStatus.TOO_MANY_REQUESTS);
+            }
+            return ResponseEntity.accepted().body(new CreateTweetResponseDto(tweetId));
+        }
 
-        // Busca o usuário no banco de dados pelo ID extraído do token JWT
-        var user = userRepository.findById(UUID.fromString(token.getName()));
+        // O ID do usuário vem do token JWT. getReferenceById não consulta o banco:
+        // cria só uma referência, suficiente para gravar a chave estrangeira do tweet
+        var user = userRepository.getReferenceById(userId);
 
         var tweet = new Tweet();
-        // Associa o tweet ao usuário autenticado (o usuário está vindo do banco)
-        tweet.setUser(user.get());
+        // Associa o tweet ao usuário autenticado
+        tweet.setUser(user);
         tweet.setContent(createTweetDto.content());
+        tweet.setHashtags(TweetTextParser.hashtags(createTweetDto.content()));
+        tweet.setMentions(TweetTextParser.mentions(createTweetDto.content()));
 
+        // O save roda na sua própria transação, então quando ele retorna o tweet já está gravado
         tweetRepository.save(tweet);
 
+        // Avisa quem mantém estruturas em memória (ex.: timelines)
+        eventPublisher.publishEvent(new TweetCreatedEvent(
+                tweet.getTweetId(), userId, username(token, userId), tweet.getContent(), tweet.getCreationTimestamp()));
+
         return ResponseEntity.ok().build();
     }
 
 
+    // Criação de tweets em lote (importadores, bots...).
+    // O autor é resolvido uma vez e os inserts vão para o banco em lotes JDBC (hibernate.jdbc.batch_size).
+    // Itens inválidos são rejeitados individualmente sem impedir a criação dos outros.
+    @PostMapping("/tweets/batch")
+    @Transactional
+    public ResponseEntity<BatchTweetDto> createTweets(@RequestBody List<CreateTweetDto> createTweetDtos,
+                                                      JwtAuthenticationToken token) {
+
+        if (createTweetDtos == null || createTweetDtos.isEmpty() || createTweetDtos.size() > batchMaxSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "Batch must contain between 1 and " + batchMaxSize + " tweets");
+        }
+
+        var userId = UUID.fromString(token.getName());
+        var user = userRepository.getReferenceById(userId);
+
+        var results = new BatchTweetItemDto[createTweetDtos.size()];
+        var tweets = new ArrayList<Tweet>(createTweetDtos.size());
+        var indexes = new ArrayList<Integer>(createTweetDtos.size());
+
+        for (int i = 0; i < createTweetDtos.size(); i++) {
+            var dto = createTweetDtos.get(i);
+            if (dto == null || dto.content() == null || dto.content().isBlank()) {
+                results[i] = new BatchTweetItemDto(i, null, "content is required");
+                continue;
+            }
+            if (dto.content().length() > Tweet.MAX_CONTENT_LENGTH) {
+                results[i] = new BatchTweetItemDto(i, null,
+                        "content must have at most " + Tweet.MAX_CONTENT_LENGTH + " characters");
+                continue;
+            }
+            var tweet = new Tweet();
+            tweet.setUser(user);
+            tweet.setContent(dto.content());
+            tweet.setHashtags(TweetTextParser.hashtags(dto.content()));
+            tweet.setMentions(TweetTextParser.mentions(dto.content()));
+            tweets.add(tweet);
+            indexes.add(i);
+        }
+
+        tweetRepository.saveAll(tweets);
+        // Força os INSERTs agora para que um erro do banco apareça antes de respondermos
+        tweetRepository.flush();
+
+        var username = tweets.isEmpty() ? null : username(token, userId);
+        for (int i = 0; i < tweets.size(); i++) {
+            var tweet = tweets.get(i);
+            results[indexes.get(i)] = new BatchTweetItemDto(indexes.get(i), tweet.getTweetId(), null);
+            eventPublisher.publishEvent(new TweetCreatedEvent(
+                    tweet.getTweetId(), userId, username, tweet.getContent(), tweet.getCreationTimestamp()));
+        }
+
+        return ResponseEntity.ok(new BatchTweetDto(
+                tweets.size(),
+                createTweetDtos.size() - tweets.size(),
+                List.of(results)));
+    }
+
+
     @DeleteMapping("/tweets/{id}")
+    @Transactional
     public ResponseEntity<Void> deleteTweet(@PathVariable("id") Long tweetId,
                                             JwtAuthenticationToken token){
 
-        var user = userRepository.findById(UUID.fromString(token.getName()));
+        // As roles já estão no claim "scope" do token (o Spring as expõe como authorities SCOPE_*),
+        // então não é preciso buscar o usuário no banco
+        var isAdmin = isAdmin(token);
+        var userId = UUID.fromString(token.getName());
 
-        var tweet = tweetRepository.findById(tweetId)
-                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+        // O evento leva o autor (contadores do perfil). Para o dono é quem pediu; o ADMIN pode apagar tweets
+        // de outros, então nesse caso o autor é consultado antes
+        var authorId = isAdmin ? tweetRepository.findUserIdByTweetId(tweetId).orElse(null) : userId;
 
-        var isAdmin = user.get().getRoles()
-                .stream()
-                .anyMatch(role -> role.getName().equalsIgnoreCase(Role.Values.ADMIN.name()));
+        // Um único DELETE: só apaga se o tweet for do usuário ou se ele for ADMIN
+        var deleted = tweetRepository.deleteIfAllowed(tweetId, userId, isAdmin);
 
-        if(isAdmin || tweet.getUser().getUserId().equals(UUID.fromString(token.getName()))){
-            tweetRepository.deleteById(tweetId);
-        }else{
+        if (deleted == 0) {
+            // Nada foi apagado: ou o tweet não existe (404) ou pertence a outro usuário (403).
+            // Essa consulta extra só acontece no caminho de erro.
+            if (!tweetRepository.existsById(tweetId)) {
+                throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+            }
             return ResponseEntity.status(HttpStatus.FORBIDDEN).build();
         }
 
+        eventPublisher.publishEvent(new TweetDeletedEvent(tweetId, authorId));
+
         return ResponseEntity.ok().build();
     }
 
@@ -1,66 +1,227 @@
 package br.com.taina.copy_twitter.controller;
 
 import br.com.taina.copy_twitter.dto.CreateUserDto;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.dto.UserPageDto;
+import br.com.taina.copy_twitter.dto.UserProfileDto;
 import br.com.taina.copy_twitter.entity.Role;
 import br.com.taina.copy_twitter.entity.User;
 import br.com.taina.copy_twitter.repository.RoleRepository;
+import br.com.taina.copy_twitter.repository.TweetRepository;
 import br.com.taina.copy_twitter.repository.UserRepository;
+import br.com.taina.copy_twitter.service.PasswordHashingService;
+import br.com.taina.copy_twitter.service.RoleRegistry;
+import br.com.taina.copy_twitter.service.UserTweetCounters;
+import br.com.taina.copy_twitter.service.UsernameBloomFilter;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 public class UserController {
 
+    // A cada quantos usuários o /users/stream envia o que já foi escrito
+    private static final int STREAM_FLUSH_EVERY = 500;
+
+    // Nomes que coincidem com rotas fixas em /users/...: o perfil de um usuário "stream" cairia no /users/stream
+    private static final Set<String> RESERVED_USERNAMES = Set.of("stream");
+
     private final UserRepository userRepository;
 
     private final RoleRepository roleRepository;
 
-    private final BCryptPasswordEncoder passwordEncoder;
-    public UserController(UserRepository userRepository, RoleRepository roleRepository, BCryptPasswordEncoder passwordEncoder) {
+    private final PasswordHashingService passwordHashingService;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final RoleRegistry roleRegistry;
+
+    private final UsernameBloomFilter usernameBloomFilter;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ObjectMapper objectMapper;
+
+    private final int maxPageSize;
+
+    private final TweetRepository tweetRepository;
+
+    private final UserTweetCounters userTweetCounters;
+
+    private final int profileMaxRecent;
+
+    public UserController(UserRepository userRepository,
+                          RoleRepository roleRepository,
+                          PasswordHashingService passwordHashingService,
+                          TransactionTemplate transactionTemplate,
+                          RoleRegistry roleRegistry,
+                          UsernameBloomFilter usernameBloomFilter,
+                          ObjectMapper objectMapper,
+                          @Value("${users.list.max-page-size:1000}") int maxPageSize,
+                          TweetRepository tweetRepository,
+                          UserTweetCounters userTweetCounters,
+                          @Value("${users.profile.max-recent:50}") int profileMaxRecent) {
         this.userRepository = userRepository;
         this.roleRepository = roleRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.passwordHashingService = passwordHashingService;
+        this.transactionTemplate = transactionTemplate;
+        this.roleRegistry = roleRegistry;
+        this.usernameBloomFilter = usernameBloomFilter;
+        this.objectMapper = objectMapper;
+        this.maxPageSize = maxPageSize;
+        this.tweetRepository = tweetRepository;
+        this.userTweetCounters = userTweetCounters;
+        this.profileMaxRecent = profileMaxRecent;
+
+        // O Stream do repositório só pode ser lido dentro de uma transação
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
     }
 
+    // O hash da senha (bcrypt) é gerado no pool do PasswordHashingService; a gravação do usuário
+    // acontece depois, em uma transação própria, quando o hash fica pronto.
     @PostMapping("/users")
-    @Transactional
-    public ResponseEntity<Void> newUser(@RequestBody CreateUserDto createUserDto) {
+    public CompletableFuture<ResponseEntity<Void>> newUser(@RequestBody CreateUserDto createUserDto) {
 
-        var basicRole = roleRepository.findByName(Role.Values.BASIC.name());
+        var username = createUserDto.username();
 
-        var userFromDb = userRepository.findByUsername(createUserDto.username());
+        if (username != null && RESERVED_USERNAMES.contains(username)) {
+            throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY);
+        }
 
+        // Se o filtro de Bloom diz que o username está livre, não é preciso consultar o banco.
         // Se o usuário já existe, retorna um erro HTTP 422 (Unprocessable Entity).
-        if (userFromDb.isPresent()) {
+        if (usernameBloomFilter.mightContain(username) && userRepository.findUserIdByUsername(username).isPresent()) {
             throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY);
         }
 
-        // Cria um novo objeto 'User' para representar o usuário que será adicionado.
-        var user = new User();
-        user.setUsername(createUserDto.username());
-        user.setPassword(passwordEncoder.encode(createUserDto.password()));
-        user.setRoles(Set.of(basicRole));
-
-        userRepository.save(user);
+        return passwordHashingService.encode(createUserDto.password())
+                .thenApply(passwordHash -> {
+                    try {
+                        transactionTemplate.executeWithoutResult(status -> {
+                            // Cria um novo objeto 'User' para representar o usuário que será adicionado.
+                            var user = new User();
+                            user.setUsername(username);
+                            user.setPassword(passwordHash);
+                            // A role vem do registro em memória: getReferenceById não consulta o banco
+                            user.setRoles(Set.of(roleRepository.getReferenceById(roleRegistry.idOf(Role.Values.BASIC))));
 
-        return ResponseEntity.ok().build();
+                            userRepository.save(user);
+                        });
+                    } catch (DataIntegrityViolationException e) {
+                        // Dois cadastros simultâneos do mesmo username: a constraint UNIQUE barra o segundo
+                        usernameBloomFilter.add(username);
+                        throw new ResponseStatusException(HttpStatus.UNPROCESSABLE_ENTITY);
+                    }
+                    usernameBloomFilter.add(username);
+                    return ResponseEntity.ok().<Void>build();
+                });
     }
 
+    // Listagem de usuários para o admin, em páginas ordenadas por username.
+    // Devolve só id e username (a entidade User tem o hash da senha e as roles).
     @GetMapping("/users")
     @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
-    public ResponseEntity<List<User>> listUsers(){
-        var users = userRepository.findAll();
-        return ResponseEntity.ok(users);
+    @Transactional(readOnly = true)  // Leitura: no perfil "replicas" vai para uma réplica
+    public ResponseEntity<UserPageDto> listUsers(
+            @RequestParam(value = "after", required = false) String after,
+            @RequestParam(value = "pageSize", defaultValue = "100") int pageSize) {
+
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+
+        // Um usuário a mais só para saber se existe uma próxima página
+        var limit = Limit.of(pageSize + 1);
+        var users = after == null
+                ? userRepository.findUserSummaries(limit)
+                : userRepository.findUserSummariesAfter(after, limit);
+
+        String nextAfter = null;
+        if (users.size() > pageSize) {
+            users = users.subList(0, pageSize);
+            nextAfter = users.get(pageSize - 1).username();
+        }
+
+        return ResponseEntity.ok(new UserPageDto(users, pageSize, nextAfter));
+    }
+
+    // Perfil do usuário: quantidade de tweets, momento do último tweet e os `recent` tweets mais recentes.
+    // Os contadores vêm da memória (UserTweetCounters) e os tweets do índice (user_id, creation_timestamp),
+    // então o custo não cresce com a quantidade de tweets do usuário.
+    @GetMapping("/users/{username}")
+    @Transactional(readOnly = true)  // Leitura: no perfil "replicas" vai para uma réplica
+    public ResponseEntity<UserProfileDto> profile(
+            @PathVariable("username") String username,
+            @RequestParam(value = "recent", defaultValue = "10") int recent) {
+
+        if (recent < 0 || recent > profileMaxRecent) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST);
+        }
+
+        var userId = userRepository.findUserIdByUsername(username)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND));
+
+        var counters = userTweetCounters.get(userId);
+        var recentTweets = recent == 0 ? List.<FeedItemDto>of() : tweetRepository.findRecentByUserId(userId, Limit.of(recent));
+
+        // O tweet mais recente que ainda existe; sem tweets no banco (apagados ou arquivados), vale o contador
+        var lastTweetAt = recentTweets.isEmpty() ? counters.lastTweetAt() : recentTweets.get(0).creationTimestamp();
+
+        return ResponseEntity.ok(new UserProfileDto(userId, username, counters.tweetCount(), lastTweetAt, recentTweets));
+    }
+
+    // Todos os usuários em NDJSON (um UserSummaryDto por linha), escritos à medida que são lidos do banco.
+    // A memória usada não depende da quantidade de usuários: as linhas vêm do cursor em blocos do fetch size
+    // e cada uma é serializada e descartada.
+    @GetMapping(value = "/users/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasAuthority('SCOPE_ADMIN')")
+    public ResponseEntity<StreamingResponseBody> streamUsers() {
+
+        StreamingResponseBody body = outputStream -> readOnlyTransactionTemplate.executeWithoutResult(status -> {
+            // Um único gerador JSON para a resposta inteira, com uma quebra de linha entre os valores
+            var writer = objectMapper.writer()
+                    .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                    .withRootValueSeparator("\n");
+            try (var users = userRepository.streamUserSummaries();
+                 var sequence = writer.writeValues(outputStream)) {
+                var count = 0;
+                for (var iterator = users.iterator(); iterator.hasNext(); ) {
+                    sequence.write(iterator.next());
+                    // Envia ao cliente em blocos, sem esperar o fim da consulta
+                    if (++count % STREAM_FLUSH_EVERY == 0) {
+                        sequence.flush();
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 }
@@ -0,0 +1,9 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.util.List;
+
+// Resposta do POST /tweets/batch, com o resultado de cada item na mesma ordem do pedido
+public record BatchTweetDto(int created,
+                            int rejected,
+                            List<BatchTweetItemDto> results) {
+}
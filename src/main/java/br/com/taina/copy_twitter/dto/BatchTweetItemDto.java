@@ -0,0 +1,5 @@
+package br.com.taina.copy_twitter.dto;
+
+// Resultado de um item do lote: o id do tweet criado ou o motivo da rejeição
+public record BatchTweetItemDto(int index, Long tweetId, String error) {
+}
@@ -0,0 +1,5 @@
+package br.com.taina.copy_twitter.dto;
+
+// Devolvido quando o tweet é aceito pela escrita assíncrona (HTTP 202)
+public record CreateTweetResponseDto(Long tweetId) {
+}
@@ -0,0 +1,10 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.util.List;
+
+// Variante do feed paginada por cursor: não tem totais (não executa COUNT),
+// apenas o cursor da próxima página (null quando não há mais tweets)
+public record CursorFeedDto(List<FeedItemDto> feedItens,
+                            int pageSize,
+                            String nextCursor) {
+}
@@ -0,0 +1,48 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+// Cursor opaco usado na paginação por "seek" do feed.
+// Guarda o timestamp e o id do último tweet entregue, assim a próxima página
+// começa logo depois dele sem precisar de OFFSET.
+public record FeedCursor(Instant creationTimestamp, long tweetId) {
+
+    // Posição do tweet na ordem do feed como um long: microssegundos desde 1970, a precisão da coluna
+    // creation_timestamp. As estruturas em memória ordenam por (sortKey, tweetId), a mesma ordem do banco.
+    public static long sortKey(Instant timestamp) {
+        return timestamp.getEpochSecond() * 1_000_000L + timestamp.getNano() / 1_000;
+    }
+
+    public long sortKey() {
+        return sortKey(creationTimestamp);
+    }
+
+    // Caminho inverso do sortKey
+    public static FeedCursor fromSortKey(long sortKey, long tweetId) {
+        var timestamp = Instant.ofEpochSecond(Math.floorDiv(sortKey, 1_000_000L), Math.floorMod(sortKey, 1_000_000L) * 1_000);
+        return new FeedCursor(timestamp, tweetId);
+    }
+
+    // Codifica o cursor em Base64 (url-safe) para o cliente tratar como uma string opaca
+    public String encode() {
+        var raw = creationTimestamp.getEpochSecond() + ":" + creationTimestamp.getNano() + ":" + tweetId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Faz o caminho inverso do encode. Lança IllegalArgumentException se o cursor for inválido.
+    public static FeedCursor decode(String cursor) {
+        try {
+            var raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            var parts = raw.split(":");
+            if (parts.length != 3) {
+                throw new IllegalArgumentException("Invalid feed cursor");
+            }
+            var timestamp = Instant.ofEpochSecond(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+            return new FeedCursor(timestamp, Long.parseLong(parts[2]));
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid feed cursor", e);
+        }
+    }
+}
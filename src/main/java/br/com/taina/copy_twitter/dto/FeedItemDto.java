@@ -1,4 +1,13 @@
 package br.com.taina.copy_twitter.dto;
 
-public record FeedItemDto(long tweetId,String content, String username) {
+import java.time.Instant;
+import java.util.Comparator;
+
+public record FeedItemDto(Long tweetId, String content, String username, Instant creationTimestamp) {
+
+    // Ordem do feed: do mais recente para o mais antigo, desempatando pelo id (como nas consultas do banco)
+    public static final Comparator<FeedItemDto> NEWEST_FIRST = Comparator
+            .comparing(FeedItemDto::creationTimestamp)
+            .thenComparing(FeedItemDto::tweetId)
+            .reversed();
 }
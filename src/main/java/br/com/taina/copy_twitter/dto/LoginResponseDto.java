@@ -1,5 +1,6 @@
 package br.com.taina.copy_twitter.dto;
 
 //Recebe o token de acesso e a data de expiração...
-public record LoginResponseDto(String acessToken, Long expiresIn) {
+// ... e o refresh token (com a expiração dele), usado em POST /token/refresh para pedir um novo token de acesso
+public record LoginResponseDto(String acessToken, Long expiresIn, String refreshToken, Long refreshExpiresIn) {
 }
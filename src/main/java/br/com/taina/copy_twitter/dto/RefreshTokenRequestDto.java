@@ -0,0 +1,5 @@
+package br.com.taina.copy_twitter.dto;
+
+// Corpo de POST /token/refresh e POST /token/revoke
+public record RefreshTokenRequestDto(String refreshToken) {
+}
@@ -0,0 +1,5 @@
+package br.com.taina.copy_twitter.dto;
+
+// Hashtag em alta e a quantidade (aproximada) de tweets com ela na janela de tempo
+public record TrendDto(String hashtag, long count) {
+}
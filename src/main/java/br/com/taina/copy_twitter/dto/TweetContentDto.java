@@ -0,0 +1,7 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.time.Instant;
+
+// Apenas o id, o conteúdo e o momento de criação do tweet, usado para montar o índice de busca
+public record TweetContentDto(Long tweetId, String content, Instant creationTimestamp) {
+}
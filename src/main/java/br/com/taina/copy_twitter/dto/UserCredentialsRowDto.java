@@ -0,0 +1,7 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.util.UUID;
+
+// Linha da consulta de credenciais do login: um usuário com uma das roles dele (uma linha por role)
+public record UserCredentialsRowDto(UUID userId, String username, String password, String role) {
+}
@@ -0,0 +1,10 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.util.List;
+
+// Página da listagem de usuários (admin), ordenada por username e paginada por cursor:
+// nextAfter é o username a passar em ?after= para a próxima página (null quando acabou)
+public record UserPageDto(List<UserSummaryDto> users,
+                          int pageSize,
+                          String nextAfter) {
+}
@@ -0,0 +1,13 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+// Perfil público do usuário: contadores desnormalizados e os tweets mais recentes
+public record UserProfileDto(UUID userId,
+                             String username,
+                             long tweetCount,
+                             Instant lastTweetAt,
+                             List<FeedItemDto> recentTweets) {
+}
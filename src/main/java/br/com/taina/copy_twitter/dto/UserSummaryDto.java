@@ -0,0 +1,7 @@
+package br.com.taina.copy_twitter.dto;
+
+import java.util.UUID;
+
+// Dados públicos de um usuário (sem senha nem roles)
+public record UserSummaryDto(UUID userId, String username) {
+}
@@ -0,0 +1,80 @@
+package br.com.taina.copy_twitter.entity;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+// Relação "follower segue followed". O índice em followed_id atende a busca dos seguidores
+// de um autor, usada no fan-out da timeline quando ele publica um tweet.
+@Entity
+@Table(name = "tb_follows",
+        uniqueConstraints = @UniqueConstraint(name = "uk_follows_pair", columnNames = {"follower_id", "followed_id"}),
+        indexes = @Index(name = "idx_follows_followed", columnList = "followed_id"))
+public class Follow {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "follow_id")
+    private Long followId;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "follower_id")
+    private User follower;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "followed_id")
+    private User followed;
+
+    @CreationTimestamp
+    @Column(name = "creation_timestamp")
+    private Instant creationTimestamp;
+
+    public Follow() {
+    }
+
+    public Follow(User follower, User followed) {
+        this.follower = follower;
+        this.followed = followed;
+    }
+
+    public Long getFollowId() {
+        return followId;
+    }
+
+    public void setFollowId(Long followId) {
+        this.followId = followId;
+    }
+
+    public User getFollower() {
+        return follower;
+    }
+
+    public void setFollower(User follower) {
+        this.follower = follower;
+    }
+
+    public User getFollowed() {
+        return followed;
+    }
+
+    public void setFollowed(User followed) {
+        this.followed = followed;
+    }
+
+    public Instant getCreationTimestamp() {
+        return creationTimestamp;
+    }
+
+    public void setCreationTimestamp(Instant creationTimestamp) {
+        this.creationTimestamp = creationTimestamp;
+    }
+
+    @Override
+    public String toString() {
+        return "Follow{" +
+                "followId=" + followId +
+                ", creationTimestamp=" + creationTimestamp +
+                '}';
+    }
+}
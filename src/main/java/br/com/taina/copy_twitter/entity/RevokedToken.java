@@ -0,0 +1,35 @@
+package br.com.taina.copy_twitter.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+
+// Refresh token revogado (pelo jti). Fica gravado só até a expiração do token; depois disso o token
+// já seria rejeitado de qualquer forma e a linha é apagada na compactação.
+@Entity
+@Table(name = "tb_revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @Column(name = "jti")
+    private String jti;
+
+    @Column(name = "expires_at")
+    private Instant expiresAt;
+
+    public RevokedToken() {
+    }
+
+    public RevokedToken(String jti, Instant expiresAt) {
+        this.jti = jti;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getJti() {
+        return jti;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+}
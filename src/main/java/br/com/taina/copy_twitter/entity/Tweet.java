@@ -2,15 +2,33 @@ package br.com.taina.copy_twitter.entity;
 
 import jakarta.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.OnDelete;
+import org.hibernate.annotations.OnDeleteAction;
 
 import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
 
 @Entity
-@Table(name = "tb_tweets")
+// Índices compostos: feed (ordem decrescente de criação), feed dentro de uma partição, tweets por autor
+// e tweets recentes do autor (perfil)
+@Table(name = "tb_tweets", indexes = {
+        @Index(name = "idx_tweets_feed", columnList = "creation_timestamp DESC, tweet_id DESC"),
+        @Index(name = "idx_tweets_bucket_feed", columnList = "bucket, creation_timestamp DESC, tweet_id DESC"),
+        @Index(name = "idx_tweets_user", columnList = "user_id, tweet_id DESC"),
+        @Index(name = "idx_tweets_user_recent", columnList = "user_id, creation_timestamp DESC, tweet_id DESC")
+})
 public class Tweet {
 
+    // Tamanho da coluna content (varchar). Validado antes de gravar: na escrita assíncrona um conteúdo maior
+    // só falharia depois de o cliente já ter recebido o 202
+    public static final int MAX_CONTENT_LENGTH = 255;
+
+    // Sequência "pooled": uma chamada ao banco reserva 50 ids, então a maioria dos inserts não consulta a sequência.
+    // O TweetIdAllocator reserva blocos da mesma sequência, por isso o allocationSize precisa ser igual nos dois.
     @Id
-    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tweet_seq")
+    @SequenceGenerator(name = "tweet_seq", sequenceName = "tb_tweets_seq", allocationSize = 50)
     @Column(name= "tweet_id")
     private Long tweetId;
 
@@ -18,11 +36,37 @@ public class Tweet {
     @JoinColumn(name="user_id")
     private User user;
 
+    @Column(length = MAX_CONTENT_LENGTH)
     private String content;
 
     @CreationTimestamp
+    @Column(name = "creation_timestamp")
     private Instant creationTimestamp;
 
+    // Partição por tempo: dia (UTC) da criação, em dias desde 1970-01-01 (mesma conta de TweetPartitions.bucketOf).
+    // Coluna calculada pelo banco, então vale também para os INSERTs feitos direto por JDBC.
+    @Column(name = "bucket", insertable = false, updatable = false,
+            columnDefinition = "integer generated always as (cast(floor(extract(epoch from creation_timestamp) / 86400) as integer))")
+    private Integer bucket;
+
+    // Hashtags e menções extraídas do conteúdo na criação do tweet.
+    // ON DELETE CASCADE no banco: o DELETE em lote do tweet apaga essas linhas junto.
+    @ElementCollection
+    @CollectionTable(name = "tb_tweet_hashtags",
+            joinColumns = @JoinColumn(name = "tweet_id"),
+            indexes = @Index(name = "idx_tweet_hashtags_hashtag", columnList = "hashtag"))
+    @Column(name = "hashtag")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Set<String> hashtags = new HashSet<>();
+
+    @ElementCollection
+    @CollectionTable(name = "tb_tweet_mentions",
+            joinColumns = @JoinColumn(name = "tweet_id"),
+            indexes = @Index(name = "idx_tweet_mentions_username", columnList = "username"))
+    @Column(name = "username")
+    @OnDelete(action = OnDeleteAction.CASCADE)
+    private Set<String> mentions = new HashSet<>();
+
     public Tweet() {
     }
 
@@ -65,6 +109,26 @@ public class Tweet {
         this.creationTimestamp = creationTimestamp;
     }
 
+    public Integer getBucket() {
+        return bucket;
+    }
+
+    public Set<String> getHashtags() {
+        return hashtags;
+    }
+
+    public void setHashtags(Set<String> hashtags) {
+        this.hashtags = hashtags;
+    }
+
+    public Set<String> getMentions() {
+        return mentions;
+    }
+
+    public void setMentions(Set<String> mentions) {
+        this.mentions = mentions;
+    }
+
     @Override
     public String toString() {
         return "Tweet{" +
@@ -0,0 +1,53 @@
+package br.com.taina.copy_twitter.entity;
+
+import jakarta.persistence.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Contadores desnormalizados por usuário: quantidade de tweets e momento do último tweet publicado.
+// Mantidos em memória pelo UserTweetCounters e gravados aqui periodicamente, para o perfil não precisar
+// contar as linhas de tb_tweets.
+@Entity
+@Table(name = "tb_user_counters")
+public class UserTweetCounter {
+
+    @Id
+    @Column(name = "user_id")
+    private UUID userId;
+
+    @Column(name = "tweet_count")
+    private long tweetCount;
+
+    @Column(name = "last_tweet_at")
+    private Instant lastTweetAt;
+
+    public UserTweetCounter() {
+    }
+
+    public UserTweetCounter(UUID userId, Long tweetCount, Instant lastTweetAt) {
+        this.userId = userId;
+        this.tweetCount = tweetCount;
+        this.lastTweetAt = lastTweetAt;
+    }
+
+    public UUID getUserId() {
+        return userId;
+    }
+
+    public long getTweetCount() {
+        return tweetCount;
+    }
+
+    public void setTweetCount(long tweetCount) {
+        this.tweetCount = tweetCount;
+    }
+
+    public Instant getLastTweetAt() {
+        return lastTweetAt;
+    }
+
+    public void setLastTweetAt(Instant lastTweetAt) {
+        this.lastTweetAt = lastTweetAt;
+    }
+}
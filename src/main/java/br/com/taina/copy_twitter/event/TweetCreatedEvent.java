@@ -0,0 +1,9 @@
+package br.com.taina.copy_twitter.event;
+
+import java.time.Instant;
+import java.util.UUID;
+
+// Publicado pelo TweetController depois que um tweet é salvo.
+// Os componentes que mantêm estruturas em memória (timelines, caches...) escutam esse evento.
+public record TweetCreatedEvent(Long tweetId, UUID userId, String username, String content, Instant creationTimestamp) {
+}
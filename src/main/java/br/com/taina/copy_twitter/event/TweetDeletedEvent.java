@@ -0,0 +1,7 @@
+package br.com.taina.copy_twitter.event;
+
+import java.util.UUID;
+
+// Publicado pelo TweetController depois que um tweet é apagado (userId = autor do tweet)
+public record TweetDeletedEvent(Long tweetId, UUID userId) {
+}
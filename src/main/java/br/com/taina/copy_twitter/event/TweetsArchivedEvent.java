@@ -0,0 +1,8 @@
+package br.com.taina.copy_twitter.event;
+
+import java.util.List;
+
+// Publicado pelo TweetPartitions depois que os tweets de uma partição foram movidos para o arquivo
+// e apagados do banco
+public record TweetsArchivedEvent(int bucket, List<Long> tweetIds) {
+}
@@ -0,0 +1,41 @@
+package br.com.taina.copy_twitter.repository;
+
+import br.com.taina.copy_twitter.entity.Follow;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface FollowRepository extends JpaRepository<Follow, Long> {
+
+    boolean existsByFollower_UserIdAndFollowed_UserId(UUID followerId, UUID followedId);
+
+    // SELECT COUNT(*) FROM tb_follows WHERE followed_id = ?;
+    long countByFollowed_UserId(UUID followedId);
+
+    // Apenas os ids dos seguidores, sem carregar as entidades User
+    @Query("SELECT f.follower.userId FROM Follow f WHERE f.followed.userId = :userId")
+    List<UUID> findFollowerIds(@Param("userId") UUID userId);
+
+    // Quem o usuário segue (autores que alimentam a timeline dele)
+    @Query("SELECT f.followed.userId FROM Follow f WHERE f.follower.userId = :userId")
+    List<UUID> findFollowedIds(@Param("userId") UUID userId);
+
+    // Entre os autores informados, quais o usuário segue
+    @Query("""
+            SELECT f.followed.userId FROM Follow f
+            WHERE f.follower.userId = :followerId AND f.followed.userId IN :candidates
+            """)
+    List<UUID> findFollowedIdsAmong(@Param("followerId") UUID followerId,
+                                    @Param("candidates") Collection<UUID> candidates);
+
+    @Modifying
+    @Query("DELETE FROM Follow f WHERE f.follower.userId = :followerId AND f.followed.userId = :followedId")
+    int deleteFollow(@Param("followerId") UUID followerId, @Param("followedId") UUID followedId);
+}
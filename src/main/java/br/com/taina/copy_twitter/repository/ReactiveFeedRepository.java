@@ -0,0 +1,62 @@
+package br.com.taina.copy_twitter.repository;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.dto.UserSummaryDto;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+// Consultas de leitura do feed e de usuários via R2DBC (sem bloquear a thread que faz a requisição).
+// As escritas continuam no TweetRepository (JPA); as duas pontas usam o mesmo banco.
+@Repository
+public class ReactiveFeedRepository {
+
+    private static final String FEED_ITEM_SELECT = """
+            SELECT t.tweet_id, t.content, u.username, t.creation_timestamp
+            FROM tb_tweets t JOIN tb_users u ON u.user_id = t.user_id
+            """;
+
+    private final DatabaseClient databaseClient;
+
+    public ReactiveFeedRepository(DatabaseClient databaseClient) {
+        this.databaseClient = databaseClient;
+    }
+
+    // Mesma ordenação do TweetRepository.findFeedPage (timestamp decrescente, desempate pelo id)
+    public Flux<FeedItemDto> findFeedPage(int page, int pageSize) {
+        return databaseClient.sql(FEED_ITEM_SELECT
+                        + "ORDER BY t.creation_timestamp DESC, t.tweet_id DESC LIMIT :limit OFFSET :offset")
+                .bind("limit", pageSize)
+                .bind("offset", (long) page * pageSize)
+                .map(ReactiveFeedRepository::toFeedItem)
+                .all();
+    }
+
+    public Mono<Long> countTweets() {
+        return databaseClient.sql("SELECT COUNT(*) FROM tb_tweets")
+                .map(row -> row.get(0, Long.class))
+                .one();
+    }
+
+    public Mono<UserSummaryDto> findUserByUsername(String username) {
+        return databaseClient.sql("SELECT user_id, username FROM tb_users WHERE username = :username")
+                .bind("username", username)
+                .map(row -> new UserSummaryDto(row.get("user_id", UUID.class), row.get("username", String.class)))
+                .one();
+    }
+
+    private static FeedItemDto toFeedItem(Readable row) {
+        // A coluna é "timestamp with time zone"; o driver do H2 a devolve como OffsetDateTime
+        var creationTimestamp = row.get("creation_timestamp", OffsetDateTime.class);
+        return new FeedItemDto(
+                row.get("tweet_id", Long.class),
+                row.get("content", String.class),
+                row.get("username", String.class),
+                creationTimestamp == null ? null : creationTimestamp.toInstant());
+    }
+}
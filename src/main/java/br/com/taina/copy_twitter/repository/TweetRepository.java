@@ -1,9 +1,149 @@
 package br.com.taina.copy_twitter.repository;
 
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.dto.TweetContentDto;
 import br.com.taina.copy_twitter.entity.Tweet;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Stream;
+
 @Repository
 public interface TweetRepository extends JpaRepository<Tweet, Long> {
+
+    // As consultas do feed usam uma "constructor expression": o banco devolve apenas as colunas
+    // que o FeedItemDto precisa em um único SELECT com JOIN, sem carregar as entidades Tweet/User/Role.
+    // SELECT t.tweet_id, t.content, u.username, t.creation_timestamp FROM tb_tweets t JOIN tb_users u ...
+    String FEED_ITEM_SELECT = """
+            SELECT new br.com.taina.copy_twitter.dto.FeedItemDto(
+                t.tweetId, t.content, u.username, t.creationTimestamp)
+            FROM Tweet t JOIN t.user u
+            """;
+
+    // Feed paginado por OFFSET, com o COUNT(*) para os totais
+    @Query(value = FEED_ITEM_SELECT + "ORDER BY t.creationTimestamp DESC, t.tweetId DESC",
+            countQuery = "SELECT count(t) FROM Tweet t")
+    Page<FeedItemDto> findFeedPage(Pageable pageable);
+
+    // Página paginada sem o COUNT(*): o Slice só sabe se existe uma próxima página
+    @Query(FEED_ITEM_SELECT + "ORDER BY t.creationTimestamp DESC, t.tweetId DESC")
+    Slice<FeedItemDto> findFeedSlice(Pageable pageable);
+
+    // Primeira página do feed por cursor
+    @Query(FEED_ITEM_SELECT + "ORDER BY t.creationTimestamp DESC, t.tweetId DESC")
+    List<FeedItemDto> findFeedHead(Limit limit);
+
+    // Próximas páginas: busca por "seek" a partir do cursor usando o índice (creation_timestamp, tweet_id)
+    @Query(FEED_ITEM_SELECT + """
+            WHERE t.creationTimestamp < :timestamp
+               OR (t.creationTimestamp = :timestamp AND t.tweetId < :tweetId)
+            ORDER BY t.creationTimestamp DESC, t.tweetId DESC
+            """)
+    List<FeedItemDto> findFeedBefore(@Param("timestamp") Instant timestamp,
+                                     @Param("tweetId") Long tweetId,
+                                     Limit limit);
+
+    // Feed dentro de uma partição (dia): usa o índice (bucket, creation_timestamp, tweet_id)
+    @Query(FEED_ITEM_SELECT + "WHERE t.bucket = :bucket ORDER BY t.creationTimestamp DESC, t.tweetId DESC")
+    List<FeedItemDto> findFeedHeadInBucket(@Param("bucket") int bucket, Limit limit);
+
+    @Query(FEED_ITEM_SELECT + """
+            WHERE t.bucket = :bucket
+              AND (t.creationTimestamp < :timestamp
+                   OR (t.creationTimestamp = :timestamp AND t.tweetId < :tweetId))
+            ORDER BY t.creationTimestamp DESC, t.tweetId DESC
+            """)
+    List<FeedItemDto> findFeedBeforeInBucket(@Param("bucket") int bucket,
+                                             @Param("timestamp") Instant timestamp,
+                                             @Param("tweetId") Long tweetId,
+                                             Limit limit);
+
+    // Partições que ainda têm tweets no banco
+    @Query("SELECT DISTINCT t.bucket FROM Tweet t")
+    List<Integer> findBuckets();
+
+    // Todos os tweets de uma partição, do mais novo para o mais antigo, lidos em blocos pelo cursor (arquivamento)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(FEED_ITEM_SELECT + "WHERE t.bucket = :bucket ORDER BY t.creationTimestamp DESC, t.tweetId DESC")
+    Stream<FeedItemDto> streamBucket(@Param("bucket") int bucket);
+
+    // Remove os tweets já gravados no arquivo e devolve os ids que ainda estavam no banco (hashtags e menções
+    // saem pelo ON DELETE CASCADE). OLD TABLE (H2) devolve as linhas apagadas pelo próprio DELETE.
+    @Query(value = "SELECT tweet_id FROM OLD TABLE (DELETE FROM tb_tweets WHERE tweet_id IN (:ids))", nativeQuery = true)
+    List<Long> deleteArchived(@Param("ids") Collection<Long> ids);
+
+    // Resolve os ids guardados na timeline materializada em itens do feed
+    @Query(FEED_ITEM_SELECT + "WHERE t.tweetId IN :ids")
+    List<FeedItemDto> findFeedItemsByIds(@Param("ids") Collection<Long> ids);
+
+    // Tweets mais recentes de um conjunto de autores (fan-out na leitura), na ordem do feed
+    @Query(FEED_ITEM_SELECT + """
+            WHERE u.userId IN :userIds
+            ORDER BY t.creationTimestamp DESC, t.tweetId DESC
+            """)
+    List<FeedItemDto> findFeedItemsByAuthors(@Param("userIds") Collection<UUID> userIds, Limit limit);
+
+    @Query(FEED_ITEM_SELECT + """
+            WHERE u.userId IN :userIds
+              AND (t.creationTimestamp < :timestamp
+                   OR (t.creationTimestamp = :timestamp AND t.tweetId < :tweetId))
+            ORDER BY t.creationTimestamp DESC, t.tweetId DESC
+            """)
+    List<FeedItemDto> findFeedItemsByAuthorsBefore(@Param("userIds") Collection<UUID> userIds,
+                                                   @Param("timestamp") Instant timestamp,
+                                                   @Param("tweetId") Long tweetId,
+                                                   Limit limit);
+
+    // Tweets mais recentes de um autor (perfil): usa o índice (user_id, creation_timestamp, tweet_id),
+    // então o custo depende só do limite, não de quantos tweets o autor tem
+    @Query(FEED_ITEM_SELECT + "WHERE u.userId = :userId ORDER BY t.creationTimestamp DESC, t.tweetId DESC")
+    List<FeedItemDto> findRecentByUserId(@Param("userId") UUID userId, Limit limit);
+
+    // Autor do tweet (para o ADMIN, que pode apagar tweets de outros usuários)
+    @Query("SELECT t.user.userId FROM Tweet t WHERE t.tweetId = :tweetId")
+    Optional<UUID> findUserIdByTweetId(@Param("tweetId") Long tweetId);
+
+    // Reconstrói a timeline de um usuário: os tweets dele e de quem ele segue, na ordem do feed
+    // (só o timestamp e o id de cada tweet)
+    @Query("""
+            SELECT new br.com.taina.copy_twitter.dto.FeedCursor(t.creationTimestamp, t.tweetId) FROM Tweet t
+            WHERE t.user.userId = :userId
+               OR t.user.userId IN (SELECT f.followed.userId FROM Follow f WHERE f.follower.userId = :userId)
+            ORDER BY t.creationTimestamp DESC, t.tweetId DESC
+            """)
+    List<FeedCursor> findHomeTimeline(@Param("userId") UUID userId, Limit limit);
+
+    // Apaga o tweet em um único comando, apenas se ele pertencer ao usuário ou se quem pede for ADMIN.
+    // Devolve a quantidade de linhas apagadas (0 ou 1).
+    // DELETE FROM tb_tweets WHERE tweet_id = ? AND (user_id = ? OR ? = TRUE);
+    @Modifying
+    @Query("DELETE FROM Tweet t WHERE t.tweetId = :tweetId AND (t.user.userId = :userId OR :isAdmin = true)")
+    int deleteIfAllowed(@Param("tweetId") Long tweetId,
+                        @Param("userId") UUID userId,
+                        @Param("isAdmin") boolean isAdmin);
+
+    // Lê os tweets em blocos ordenados por id, para montar o índice de busca sem carregar tudo de uma vez
+    @Query("""
+            SELECT new br.com.taina.copy_twitter.dto.TweetContentDto(t.tweetId, t.content, t.creationTimestamp)
+            FROM Tweet t
+            WHERE t.tweetId > :afterId
+            ORDER BY t.tweetId
+            """)
+    List<TweetContentDto> findContentAfter(@Param("afterId") Long afterId, Limit limit);
 }
@@ -1,11 +1,23 @@
 package br.com.taina.copy_twitter.repository;
 
+import br.com.taina.copy_twitter.dto.UserCredentialsRowDto;
+import br.com.taina.copy_twitter.dto.UserSummaryDto;
 import br.com.taina.copy_twitter.entity.User;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @Repository
 public interface UserRepository extends JpaRepository<User, UUID> {
@@ -13,4 +25,52 @@ public interface UserRepository extends JpaRepository<User, UUID> {
     // Verifica se o username existe ...
     // SELECT * FROM user WHERE username = ?;
     Optional<User> findByUsername(String username);
+
+    // Apenas o id, sem carregar o usuário e as roles
+    // SELECT user_id FROM tb_users WHERE username = ?;
+    @Query("SELECT u.userId FROM User u WHERE u.username = :username")
+    Optional<UUID> findUserIdByUsername(@Param("username") String username);
+
+    // Apenas o username
+    @Query("SELECT u.username FROM User u WHERE u.userId = :userId")
+    Optional<String> findUsernameByUserId(@Param("userId") UUID userId);
+
+    // Credenciais do login sem carregar a entidade User: id, username, hash e o nome de cada role.
+    // Uma linha por role (LEFT JOIN: um usuário sem roles volta com role null).
+    @Query("""
+            SELECT new br.com.taina.copy_twitter.dto.UserCredentialsRowDto(u.userId, u.username, u.password, r.name)
+            FROM User u LEFT JOIN u.roles r
+            WHERE u.username = :username
+            """)
+    List<UserCredentialsRowDto> findCredentialsByUsername(@Param("username") String username);
+
+    // Listagem de usuários para o admin: apenas id e username (sem senha e sem o JOIN nas roles).
+    // Paginada por "seek" no índice único do username, então o custo não depende da página.
+    String USER_SUMMARY_SELECT = """
+            SELECT new br.com.taina.copy_twitter.dto.UserSummaryDto(u.userId, u.username)
+            FROM User u
+            """;
+
+    @Query(USER_SUMMARY_SELECT + "ORDER BY u.username")
+    List<UserSummaryDto> findUserSummaries(Limit limit);
+
+    @Query(USER_SUMMARY_SELECT + "WHERE u.username > :after ORDER BY u.username")
+    List<UserSummaryDto> findUserSummariesAfter(@Param("after") String after, Limit limit);
+
+    // Todos os usuários como um Stream: o JDBC busca as linhas em blocos (fetch size) por um cursor,
+    // sem montar a lista inteira em memória. Precisa ser consumido dentro de uma transação e fechado.
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query(USER_SUMMARY_SELECT + "ORDER BY u.username")
+    Stream<UserSummaryDto> streamUserSummaries();
+
+    // Todos os usernames (carga inicial do filtro de Bloom do cadastro), lidos em blocos pelo cursor
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT u.username FROM User u")
+    Stream<String> streamUsernames();
+
+    // Troca só o hash da senha (usado quando o custo do bcrypt muda)
+    @Modifying
+    @Transactional
+    @Query("UPDATE User u SET u.password = :password WHERE u.userId = :userId")
+    int updatePassword(@Param("userId") UUID userId, @Param("password") String password);
 }
@@ -0,0 +1,22 @@
+package br.com.taina.copy_twitter.repository;
+
+import br.com.taina.copy_twitter.entity.UserTweetCounter;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface UserTweetCounterRepository extends JpaRepository<UserTweetCounter, UUID> {
+
+    // Recalcula os contadores a partir de tb_tweets (uma varredura só, quando tb_user_counters está vazia)
+    @Query("""
+            SELECT new br.com.taina.copy_twitter.entity.UserTweetCounter(
+                t.user.userId, count(t), max(t.creationTimestamp))
+            FROM Tweet t
+            GROUP BY t.user.userId
+            """)
+    List<UserTweetCounter> countTweetsByUser();
+}
@@ -0,0 +1,238 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.entity.Tweet;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+// Escrita assíncrona de tweets (tweets.async-write.enabled=true).
+//
+// O controller valida o tweet, reserva o id e coloca o tweet em uma fila limitada; a requisição
+// termina sem esperar o banco. Uma única thread consome a fila e grava os tweets em grupo:
+// vários tweets por transação, com INSERTs em lote JDBC (group commit).
+//
+// - Fila cheia: submit devolve null e o controller responde 429 (backpressure).
+// - No desligamento da aplicação a fila é esvaziada antes de a thread terminar.
+// - Se a gravação de um grupo falhar, os tweets do grupo são gravados de novo um a um: só os que falharem
+//   sozinhos (ex.: autor que não existe mais) são perdidos, contados em tweets.async.failed e registrados no log.
+@Service
+public class AsyncTweetWriter implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(AsyncTweetWriter.class);
+
+    private static final String INSERT_SQL =
+            "INSERT INTO tb_tweets (tweet_id, user_id, content, creation_timestamp) VALUES (?, ?, ?, ?)";
+
+    private static final String INSERT_HASHTAG_SQL = "INSERT INTO tb_tweet_hashtags (tweet_id, hashtag) VALUES (?, ?)";
+
+    private static final String INSERT_MENTION_SQL = "INSERT INTO tb_tweet_mentions (tweet_id, username) VALUES (?, ?)";
+
+    private record PendingTweet(long tweetId, UUID userId, String username, String content, Instant creationTimestamp) {
+    }
+
+    private final boolean enabled;
+
+    private final int batchSize;
+
+    private final BlockingQueue<PendingTweet> queue;
+
+    private final TweetIdAllocator idAllocator;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final Timer commitTimer;
+
+    private final Counter rejected;
+
+    private final Counter failed;
+
+    private volatile boolean running;
+
+    private Thread writerThread;
+
+    public AsyncTweetWriter(@Value("${tweets.async-write.enabled:false}") boolean enabled,
+                            @Value("${tweets.async-write.queue-capacity:10000}") int queueCapacity,
+                            @Value("${tweets.async-write.batch-size:200}") int batchSize,
+                            TweetIdAllocator idAllocator,
+                            JdbcTemplate jdbcTemplate,
+                            TransactionTemplate transactionTemplate,
+                            ApplicationEventPublisher eventPublisher,
+                            MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.idAllocator = idAllocator;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.commitTimer = meterRegistry.timer("tweets.async.commit");
+        this.rejected = meterRegistry.counter("tweets.async.rejected");
+        this.failed = meterRegistry.counter("tweets.async.failed");
+        meterRegistry.gauge("tweets.async.queue.depth", queue, BlockingQueue::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Reserva o id e enfileira o tweet. Devolve null se a fila estiver cheia ou o writer parado.
+    // O conteúdo já deve ter sido validado (o controller responde 400); aqui só se garante que um item
+    // que o banco recusaria não chegue à fila.
+    public Long submit(UUID userId, String username, String content) {
+        if (content == null || content.isBlank() || content.length() > Tweet.MAX_CONTENT_LENGTH) {
+            throw new IllegalArgumentException("content must have between 1 and " + Tweet.MAX_CONTENT_LENGTH + " characters");
+        }
+        if (!running) {
+            return null;
+        }
+        var tweetId = idAllocator.nextId();
+        // Na precisão da coluna creation_timestamp (microssegundos): o evento publicado depois do commit
+        // leva o mesmo instante que foi gravado, e os cursores montados a partir dele batem com o banco
+        var creationTimestamp = Instant.now().truncatedTo(ChronoUnit.MICROS);
+        if (!queue.offer(new PendingTweet(tweetId, userId, username, content, creationTimestamp))) {
+            rejected.increment();
+            return null;
+        }
+        return tweetId;
+    }
+
+    @Override
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        writerThread = new Thread(this::drainLoop, "async-tweet-writer");
+        writerThread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (writerThread == null) {
+            return;
+        }
+        // Sem interrupt: a thread percebe o running=false em até 1s, esvazia a fila e termina
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(30));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    // No desligamento as fases maiores param primeiro. Esta fase fica abaixo da do servidor web
+    // (WebServerGracefulShutdownLifecycle em DEFAULT_PHASE - 1024, WebServerStartStopLifecycle em DEFAULT_PHASE - 2048):
+    // a fila só é esvaziada depois que as requisições em andamento terminaram e nenhuma nova chega.
+    // O DataSource só é fechado na destruição dos beans, depois de todas as fases.
+    @Override
+    public int getPhase() {
+        return SmartLifecycle.DEFAULT_PHASE - 4096;
+    }
+
+    private void drainLoop() {
+        var batch = new ArrayList<PendingTweet>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                var first = running ? queue.poll(1, TimeUnit.SECONDS) : queue.poll();
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Failed to write {} queued tweets", batch.size(), e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void commit(List<PendingTweet> batch) {
+        List<PendingTweet> written;
+        try {
+            commitTimer.record(() -> transactionTemplate.executeWithoutResult(status -> insert(batch)));
+            written = batch;
+        } catch (RuntimeException e) {
+            // Um item ruim desfaz o grupo inteiro: tenta cada tweet na sua própria transação
+            log.warn("Failed to write a group of {} queued tweets, retrying one by one", batch.size(), e);
+            written = new ArrayList<>(batch.size());
+            for (var tweet : batch) {
+                try {
+                    transactionTemplate.executeWithoutResult(status -> insert(List.of(tweet)));
+                    written.add(tweet);
+                } catch (RuntimeException retryError) {
+                    failed.increment();
+                    log.error("Failed to write queued tweet {} of user {}", tweet.tweetId(), tweet.userId(), retryError);
+                }
+            }
+        }
+
+        // Depois do commit os listeners (timelines, cache do feed...) ficam sabendo dos tweets novos.
+        // Erro em um listener não é falha de gravação: o tweet já está no banco e os outros eventos seguem.
+        for (var tweet : written) {
+            try {
+                eventPublisher.publishEvent(new TweetCreatedEvent(
+                        tweet.tweetId(), tweet.userId(), tweet.username(), tweet.content(), tweet.creationTimestamp()));
+            } catch (RuntimeException e) {
+                log.error("Listener failed for tweet {}", tweet.tweetId(), e);
+            }
+        }
+    }
+
+    private void insert(List<PendingTweet> tweets) {
+
+        // Hashtags e menções de todos os tweets do grupo, gravadas em lote junto com os tweets
+        var hashtags = new ArrayList<Object[]>();
+        var mentions = new ArrayList<Object[]>();
+        for (var tweet : tweets) {
+            TweetTextParser.hashtags(tweet.content()).forEach(tag -> hashtags.add(new Object[]{tweet.tweetId(), tag}));
+            TweetTextParser.mentions(tweet.content()).forEach(user -> mentions.add(new Object[]{tweet.tweetId(), user}));
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, tweets, tweets.size(), (ps, tweet) -> {
+            ps.setLong(1, tweet.tweetId());
+            ps.setObject(2, tweet.userId());
+            ps.setString(3, tweet.content());
+            ps.setObject(4, OffsetDateTime.ofInstant(tweet.creationTimestamp(), ZoneOffset.UTC));
+        });
+        if (!hashtags.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_HASHTAG_SQL, hashtags);
+        }
+        if (!mentions.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_MENTION_SQL, mentions);
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Transmite os tweets novos e as remoções para os clientes conectados no GET /feed/stream (SSE).
+//
+// Quem publica só escreve o evento em um buffer circular compartilhado e avisa os assinantes:
+// nunca espera por um cliente. Cada assinante tem a sua posição de leitura no buffer e é servido
+// por uma tarefa em virtual thread que envia o que falta; um cliente lento só atrasa a si mesmo.
+// Se um assinante ficar mais de uma volta do buffer para trás, os eventos perdidos são descartados
+// e ele recebe um evento "resync" (deve recarregar o feed) e continua a partir do mais recente.
+//
+// Uma conexão parada não ocupa thread nenhuma (o SseEmitter usa o modo assíncrono do servlet),
+// apenas o objeto do assinante; por isso dá para manter dezenas de milhares delas.
+@Service
+public class FeedBroadcaster {
+
+    private record FeedEvent(String name, Object data) {
+    }
+
+    private final AtomicReferenceArray<FeedEvent> ring;
+
+    private final int mask;
+
+    // Quantidade de eventos já publicados (a posição do próximo é published % tamanho)
+    private volatile long published;
+
+    private final ReentrantLock publishLock = new ReentrantLock();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final int maxSubscribers;
+
+    private final Duration timeout;
+
+    private final Counter dropped;
+
+    public FeedBroadcaster(@Value("${feed.stream.buffer-size:1024}") int bufferSize,
+                           @Value("${feed.stream.max-subscribers:50000}") int maxSubscribers,
+                           @Value("${feed.stream.timeout:30m}") Duration timeout,
+                           MeterRegistry meterRegistry) {
+        // Tamanho potência de 2 para calcular a posição com uma máscara
+        var size = Integer.highestOneBit(Math.max(2, bufferSize - 1)) << 1;
+        this.ring = new AtomicReferenceArray<>(size);
+        this.mask = size - 1;
+        this.maxSubscribers = maxSubscribers;
+        this.timeout = timeout;
+        this.dropped = meterRegistry.counter("feed.stream.dropped");
+        meterRegistry.gauge("feed.stream.subscribers", subscribers, Set::size);
+    }
+
+    // Cria a conexão SSE de um cliente. Devolve null se o limite de conexões foi atingido.
+    public SseEmitter subscribe() {
+        if (subscribers.size() >= maxSubscribers) {
+            return null;
+        }
+        var emitter = new SseEmitter(timeout.toMillis());
+        var subscriber = new Subscriber(emitter, published);
+        subscribers.add(subscriber);
+        emitter.onCompletion(() -> subscribers.remove(subscriber));
+        emitter.onTimeout(() -> subscribers.remove(subscriber));
+        emitter.onError(e -> subscribers.remove(subscriber));
+        return emitter;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        publish(new FeedEvent("tweet", new FeedItemDto(
+                event.tweetId(), event.content(), event.username(), event.creationTimestamp())));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetDeleted(TweetDeletedEvent event) {
+        publish(new FeedEvent("delete", Map.of("tweetId", event.tweetId())));
+    }
+
+    private void publish(FeedEvent event) {
+        publishLock.lock();
+        try {
+            ring.set((int) (published & mask), event);
+            published = published + 1;
+        } finally {
+            publishLock.unlock();
+        }
+        for (var subscriber : subscribers) {
+            subscriber.scheduleDrain();
+        }
+    }
+
+    // Comentário SSE periódico: mantém a conexão viva em proxies e detecta clientes que sumiram
+    @Scheduled(fixedDelayString = "${feed.stream.heartbeat-interval:25000}")
+    public void heartbeat() {
+        for (var subscriber : subscribers) {
+            subscriber.scheduleHeartbeat();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.forEach(subscriber -> subscriber.emitter.complete());
+        senders.shutdownNow();
+    }
+
+    private class Subscriber {
+
+        private final SseEmitter emitter;
+
+        // Próximo evento a enviar (só é lido e alterado pela tarefa que está enviando)
+        private long cursor;
+
+        // Garante no máximo uma tarefa enviando para este assinante de cada vez
+        private final AtomicBoolean sending = new AtomicBoolean();
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor = cursor;
+        }
+
+        void scheduleDrain() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(this::drain);
+            }
+        }
+
+        // Depois do comentário a tarefa segue como um drain(): um evento publicado durante o envio encontrou
+        // a flag ocupada e não agendou nada, então é esta tarefa que precisa enviá-lo antes de liberar a flag
+        void scheduleHeartbeat() {
+            if (sending.compareAndSet(false, true)) {
+                senders.execute(() -> {
+                    try {
+                        emitter.send(SseEmitter.event().comment("keep-alive"));
+                    } catch (IOException | IllegalStateException e) {
+                        sending.set(false);
+                        close(e);
+                        return;
+                    }
+                    drain();
+                });
+            }
+        }
+
+        private void drain() {
+            try {
+                do {
+                    while (cursor < published) {
+                        var head = published;
+                        // Ficou mais de uma volta para trás: descarta o que foi sobrescrito
+                        if (head - cursor > ring.length()) {
+                            dropped.increment(head - cursor);
+                            cursor = head;
+                            emitter.send(SseEmitter.event().name("resync").data(Map.of()));
+                            break;
+                        }
+                        var event = ring.get((int) (cursor & mask));
+                        emitter.send(SseEmitter.event().name(event.name()).data(event.data()));
+                        cursor++;
+                    }
+                    sending.set(false);
+                    // Um evento pode ter chegado depois do while e antes de liberar a flag
+                } while (cursor < published && sending.compareAndSet(false, true));
+            } catch (IOException | IllegalStateException e) {
+                sending.set(false);
+                close(e);
+            }
+        }
+
+        private void close(Exception e) {
+            subscribers.remove(this);
+            emitter.completeWithError(e);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Cache em memória das páginas do feed, com limite de tamanho (LRU) e tempo de vida.
+//
+// A invalidação é seletiva:
+// - um tweet novo desloca todas as páginas por OFFSET, mas no feed por cursor só muda a primeira
+//   página (as outras começam em um tweet mais antigo e continuam iguais);
+// - um tweet apagado desloca as páginas por OFFSET e muda só as páginas por cursor que o continham;
+// - uma partição arquivada é tratada como vários tweets apagados de uma vez.
+@Service
+public class FeedCache {
+
+    // Página por OFFSET (position = número da página) ou por cursor (position = cursor, "" na primeira página)
+    public enum Kind { OFFSET, CURSOR }
+
+    public record Key(Kind kind, String position, int pageSize, boolean count) {
+    }
+
+    private record Entry(Object value, List<FeedItemDto> items, long expiresAt) {
+    }
+
+    private final Map<Key, Entry> entries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long ttlNanos;
+
+    // Incrementado a cada escrita: uma página lida do banco antes de uma escrita não entra no cache depois dela
+    private long generation;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private final Counter evictions;
+
+    public FeedCache(@Value("${feed.cache.max-entries:256}") int maxEntries,
+                     @Value("${feed.cache.ttl:5s}") Duration ttl,
+                     MeterRegistry meterRegistry) {
+        this.ttlNanos = ttl.toNanos();
+        this.hits = meterRegistry.counter("feed.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("feed.cache.requests", "result", "miss");
+        this.evictions = meterRegistry.counter("feed.cache.evictions");
+
+        // LinkedHashMap em ordem de acesso: ao passar do limite remove a entrada usada há mais tempo
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Entry> eldest) {
+                if (size() > maxEntries) {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        meterRegistry.gauge("feed.cache.size", this, FeedCache::size);
+    }
+
+    // Devolve a página do cache ou carrega do banco com o `loader`
+    @SuppressWarnings("unchecked")
+    public <T> T getOrLoad(Key key, Supplier<T> loader, Function<T, List<FeedItemDto>> items) {
+
+        long generationBeforeLoad;
+        lock.lock();
+        try {
+            var entry = entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return (T) entry.value();
+                }
+                entries.remove(key);
+                evictions.increment();
+            }
+            generationBeforeLoad = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        var value = loader.get();
+
+        lock.lock();
+        try {
+            if (generation == generationBeforeLoad) {
+                entries.put(key, new Entry(value, items.apply(value), System.nanoTime() + ttlNanos));
+            }
+        } finally {
+            lock.unlock();
+        }
+        return value;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        lock.lock();
+        try {
+            generation++;
+            entries.keySet().removeIf(key -> key.kind() == Kind.OFFSET
+                    || (key.kind() == Kind.CURSOR && key.position().isEmpty()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetDeleted(TweetDeletedEvent event) {
+        lock.lock();
+        try {
+            generation++;
+            entries.entrySet().removeIf(entry -> entry.getKey().kind() == Kind.OFFSET
+                    || entry.getValue().items().stream().anyMatch(item -> item.tweetId().equals(event.tweetId())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Os tweets arquivados saíram do banco: as páginas que os continham foram montadas com linhas que não existem mais
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetsArchived(TweetsArchivedEvent event) {
+        var archivedIds = new HashSet<>(event.tweetIds());
+        lock.lock();
+        try {
+            generation++;
+            entries.entrySet().removeIf(entry -> entry.getKey().kind() == Kind.OFFSET
+                    || entry.getValue().items().stream().anyMatch(item -> archivedIds.contains(item.tweetId())));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.CursorFeedDto;
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.repository.FollowRepository;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Timeline "home" de cada usuário materializada em memória (fan-out na escrita).
+// Cada timeline guarda apenas os ids dos tweets mais recentes, limitada a `timeline.capacity`, na ordem
+// do feed: (creation_timestamp, tweet_id). Os ids sozinhos não servem de ordem, porque o Hibernate e o
+// TweetIdAllocator reservam blocos diferentes da sequência ao mesmo tempo.
+//
+// - Só ficam em memória as timelines de até `timeline.max-users` usuários (LRU), por no máximo `timeline.ttl`;
+//   as outras são montadas de novo na próxima leitura.
+// - Um índice autor -> timelines em memória que o recebem permite o fan-out sem consultar o banco:
+//   um tweet novo só é copiado para as timelines carregadas de quem segue o autor.
+// - Autores com mais de `timeline.fan-out-threshold` seguidores com timeline em memória não são copiados:
+//   os tweets deles são buscados na leitura (fan-out na leitura) e misturados com a timeline.
+@Service
+public class HomeTimelineService {
+
+    private record Entry(Timeline timeline, Set<UUID> authors, long expiresAt) {
+    }
+
+    private final Map<UUID, Entry> timelines;
+
+    // Autor -> timelines em memória que recebem os tweets dele (a do próprio autor e as de quem o segue),
+    // por usuário dono da timeline
+    private final Map<UUID, Map<UUID, Timeline>> readersByAuthor = new HashMap<>();
+
+    // Protege `timelines` e `readersByAuthor` juntos.
+    private final ReentrantLock lock = new ReentrantLock();
+
+    // Autores que passaram do limite de seguidores e por isso não fazem fan-out na escrita
+    private final Set<UUID> highFollowerAuthors = ConcurrentHashMap.newKeySet();
+
+    private final FollowRepository followRepository;
+
+    private final TweetRepository tweetRepository;
+
+    private final int capacity;
+
+    private final long fanOutThreshold;
+
+    private final long ttlNanos;
+
+    private final Counter evictions;
+
+    public HomeTimelineService(FollowRepository followRepository,
+                               TweetRepository tweetRepository,
+                               @Value("${timeline.capacity:800}") int capacity,
+                               @Value("${timeline.fan-out-threshold:1000}") long fanOutThreshold,
+                               @Value("${timeline.max-users:5000}") int maxUsers,
+                               @Value("${timeline.ttl:10m}") Duration ttl,
+                               MeterRegistry meterRegistry) {
+        this.followRepository = followRepository;
+        this.tweetRepository = tweetRepository;
+        this.capacity = capacity;
+        this.fanOutThreshold = fanOutThreshold;
+        this.ttlNanos = ttl.toNanos();
+        this.evictions = meterRegistry.counter("timeline.evictions");
+
+        // LinkedHashMap em ordem de acesso: ao passar do limite remove a timeline usada há mais tempo
+        this.timelines = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<UUID, Entry> eldest) {
+                if (size() > maxUsers) {
+                    unregister(eldest.getKey(), eldest.getValue());
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        meterRegistry.gauge("timeline.size", this, HomeTimelineService::size);
+    }
+
+    // Executado depois do commit do tweet. Só memória: nenhuma consulta ao banco
+    // (na escrita assíncrona este listener roda na thread que grava os tweets).
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+
+        var targets = new ArrayList<Timeline>();
+        lock.lock();
+        try {
+            var readers = readersByAuthor.get(event.userId());
+            if (readers == null) {
+                return;
+            }
+            var highFollower = readers.size() > fanOutThreshold;
+            if (highFollower) {
+                highFollowerAuthors.add(event.userId());
+            } else {
+                highFollowerAuthors.remove(event.userId());
+            }
+            readers.forEach((readerId, timeline) -> {
+                // A timeline do próprio autor sempre recebe o tweet
+                if (!highFollower || readerId.equals(event.userId())) {
+                    targets.add(timeline);
+                }
+            });
+        } finally {
+            lock.unlock();
+        }
+        var key = FeedCursor.sortKey(event.creationTimestamp());
+        targets.forEach(timeline -> timeline.push(key, event.tweetId()));
+    }
+
+    // Lê uma página da timeline. O cursor é o do último tweet entregue (mesmo formato do /feed/cursor).
+    public CursorFeedDto read(UUID userId, FeedCursor before, int pageSize) {
+
+        var timeline = timeline(userId);
+
+        var ids = timeline.idsBefore(before, pageSize);
+        var hasMore = ids.size() == pageSize;
+
+        // Um único SELECT para resolver os ids (tweets apagados simplesmente não voltam)
+        var items = new ArrayList<FeedItemDto>(
+                ids.isEmpty() ? List.of() : tweetRepository.findFeedItemsByIds(ids));
+
+        // Fan-out na leitura para os autores com muitos seguidores que o usuário segue
+        if (!highFollowerAuthors.isEmpty()) {
+            var followed = followRepository.findFollowedIdsAmong(userId, Set.copyOf(highFollowerAuthors));
+            if (!followed.isEmpty()) {
+                var fromAuthors = before == null
+                        ? tweetRepository.findFeedItemsByAuthors(followed, Limit.of(pageSize))
+                        : tweetRepository.findFeedItemsByAuthorsBefore(followed, before.creationTimestamp(),
+                                before.tweetId(), Limit.of(pageSize));
+                hasMore |= fromAuthors.size() == pageSize;
+                items.addAll(fromAuthors);
+            }
+        }
+
+        // Remove duplicados, ordena do mais recente para o mais antigo e corta no tamanho da página
+        var unique = new LinkedHashMap<Long, FeedItemDto>();
+        items.stream()
+                .sorted(FeedItemDto.NEWEST_FIRST)
+                .forEach(item -> unique.putIfAbsent(item.tweetId(), item));
+        var page = unique.values().stream().limit(pageSize).toList();
+
+        String nextCursor = null;
+        if (hasMore && !page.isEmpty()) {
+            var last = page.get(page.size() - 1);
+            nextCursor = new FeedCursor(last.creationTimestamp(), last.tweetId()).encode();
+        }
+
+        return new CursorFeedDto(page, pageSize, nextCursor);
+    }
+
+    // Descarta a timeline materializada (ex.: o usuário passou a seguir ou deixou de seguir alguém)
+    public void invalidate(UUID userId) {
+        lock.lock();
+        try {
+            var entry = timelines.remove(userId);
+            if (entry != null) {
+                unregister(userId, entry);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return timelines.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Timeline em memória do usuário, montada a partir do banco se ainda não existir (ou tiver expirado).
+    //
+    // A timeline vazia entra no mapa e no índice de autores ANTES da consulta: um tweet que fizer commit
+    // durante a montagem já é empurrado para ela, e o resultado da consulta é mesclado com o que chegou.
+    // Duas leituras simultâneas podem montar a mesma timeline; a mescla ignora ids repetidos.
+    private Timeline timeline(UUID userId) {
+        Timeline timeline;
+        lock.lock();
+        try {
+            var entry = timelines.get(userId);
+            if (entry != null && entry.expiresAt() - System.nanoTime() > 0) {
+                if (entry.timeline().isLoaded()) {
+                    return entry.timeline();
+                }
+                timeline = entry.timeline();
+            } else {
+                if (entry != null) {
+                    timelines.remove(userId);
+                    unregister(userId, entry);
+                    evictions.increment();
+                }
+                timeline = new Timeline(capacity);
+                // Os tweets do próprio usuário chegam já; os de quem ele segue depois de conhecer os autores
+                var authors = new HashSet<UUID>();
+                authors.add(userId);
+                timelines.put(userId, new Entry(timeline, authors, System.nanoTime() + ttlNanos));
+                register(userId, timeline, authors);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        // Primeiro os autores (para receber os tweets novos deles), depois os ids: o que fizer commit entre
+        // as duas consultas chega pelos dois caminhos, e nada fica de fora
+        var followed = followRepository.findFollowedIds(userId);
+        lock.lock();
+        try {
+            var entry = timelines.get(userId);
+            // Se a timeline foi invalidada nesse meio-tempo, ela serve só esta leitura
+            if (entry != null && entry.timeline() == timeline) {
+                entry.authors().addAll(followed);
+                register(userId, timeline, followed);
+            }
+        } finally {
+            lock.unlock();
+        }
+
+        timeline.load(tweetRepository.findHomeTimeline(userId, Limit.of(capacity)));
+        return timeline;
+    }
+
+    // Chamados com o lock
+    private void register(UUID userId, Timeline timeline, Iterable<UUID> authors) {
+        for (var author : authors) {
+            readersByAuthor.computeIfAbsent(author, id -> new HashMap<>()).put(userId, timeline);
+        }
+    }
+
+    private void unregister(UUID userId, Entry entry) {
+        for (var author : entry.authors()) {
+            var readers = readersByAuthor.get(author);
+            if (readers != null) {
+                readers.remove(userId);
+                if (readers.isEmpty()) {
+                    readersByAuthor.remove(author);
+                }
+            }
+        }
+    }
+
+    // Ids ordenados do mais antigo para o mais novo por (chave de ordenação, id), em dois arrays paralelos.
+    // Ao encher, o tweet mais antigo é descartado. Um tweet novo quase sempre entra no fim; os que fazem commit
+    // fora de ordem deslocam só os poucos mais novos que eles.
+    static class Timeline {
+
+        private final long[] keys;
+
+        private final long[] ids;
+
+        private int size;
+
+        // Já recebeu o resultado da consulta ao banco
+        private boolean loaded;
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        Timeline(int capacity) {
+            this.keys = new long[capacity];
+            this.ids = new long[capacity];
+        }
+
+        void push(long key, long tweetId) {
+            lock.lock();
+            try {
+                insert(key, tweetId);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Mescla os tweets lidos do banco (do mais recente para o mais antigo) com os empurrados durante a consulta:
+        // a timeline fica com os `capacity` mais novos, sem repetidos
+        void load(List<FeedCursor> newestFirst) {
+            lock.lock();
+            try {
+                for (var tweet : newestFirst) {
+                    insert(tweet.sortKey(), tweet.tweetId());
+                }
+                loaded = true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isLoaded() {
+            lock.lock();
+            try {
+                return loaded;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        // Chamado com o lock
+        private void insert(long key, long tweetId) {
+            var position = position(key, tweetId);
+            if (position < size && keys[position] == key && ids[position] == tweetId) {
+                return;
+            }
+            if (size == ids.length) {
+                if (position == 0) {
+                    return; // mais antigo que todos os tweets de uma timeline cheia
+                }
+                // Descarta o mais antigo (posição 0) e abre espaço logo antes de `position`
+                position--;
+                System.arraycopy(keys, 1, keys, 0, position);
+                System.arraycopy(ids, 1, ids, 0, position);
+            } else {
+                System.arraycopy(keys, position, keys, position + 1, size - position);
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                size++;
+            }
+            keys[position] = key;
+            ids[position] = tweetId;
+        }
+
+        // Primeira posição com (chave, id) >= (key, tweetId)
+        private int position(long key, long tweetId) {
+            // Quase sempre o tweet é o mais novo e entra no fim
+            if (size == 0 || isBefore(keys[size - 1], ids[size - 1], key, tweetId)) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isBefore(keys[mid], ids[mid], key, tweetId)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        // Percorre do mais recente para o mais antigo devolvendo até `limit` ids anteriores ao cursor
+        List<Long> idsBefore(FeedCursor before, int limit) {
+            lock.lock();
+            try {
+                var end = before == null ? size : position(before.sortKey(), before.tweetId());
+                var result = new ArrayList<Long>(Math.min(limit, end));
+                for (int i = end - 1; i >= 0 && result.size() < limit; i--) {
+                    result.add(ids[i]);
+                }
+                return result;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private static boolean isBefore(long key, long tweetId, long otherKey, long otherTweetId) {
+            return key < otherKey || (key == otherKey && tweetId < otherTweetId);
+        }
+    }
+}
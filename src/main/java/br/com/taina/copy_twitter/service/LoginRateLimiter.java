@@ -0,0 +1,105 @@
+package br.com.taina.copy_twitter.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Limita as tentativas de login com "token buckets": um balde por IP e outro por username.
+// As fichas voltam aos poucos (refill por minuto).
+// - Cada tentativa consome uma ficha do balde do IP: uma rajada vinda de um IP é barrada antes do bcrypt.
+// - O balde do username só perde ficha quando a senha (ou o usuário) está errada, e só para tentativas que o IP
+//   deixou passar. Um atacante barrado no próprio IP não consegue esvaziar o balde da vítima, e os logins
+//   corretos do dono da conta não contam contra ele.
+@Service
+public class LoginRateLimiter {
+
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+    private final int capacity;
+
+    private final double refillPerNano;
+
+    public LoginRateLimiter(@Value("${security.login.rate-limit.capacity:10}") int capacity,
+                            @Value("${security.login.rate-limit.refill-per-minute:10}") int refillPerMinute) {
+        this.capacity = capacity;
+        this.refillPerNano = refillPerMinute / (double) TimeUnit.MINUTES.toNanos(1);
+    }
+
+    // Chamado antes de verificar a senha: consome a ficha do IP e só confere (sem consumir) o balde do usuário
+    public boolean tryAcquire(String username, String remoteAddress) {
+        if (!bucket("ip:" + remoteAddress).tryConsume()) {
+            return false;
+        }
+        var userBucket = buckets.get("user:" + username);
+        return userBucket == null || userBucket.hasTokens();
+    }
+
+    // Chamado quando a tentativa falhou (usuário inexistente ou senha errada)
+    public void recordFailure(String username) {
+        bucket("user:" + username).tryConsume();
+    }
+
+    private Bucket bucket(String key) {
+        return buckets.computeIfAbsent(key, k -> new Bucket());
+    }
+
+    // Remove os baldes que já voltaram a ficar cheios: equivalem a um balde novo
+    @Scheduled(fixedDelayString = "${security.login.rate-limit.cleanup-interval:60000}")
+    public void removeFullBuckets() {
+        buckets.values().removeIf(Bucket::isFull);
+    }
+
+    private class Bucket {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private double tokens = capacity;
+
+        private long lastRefill = System.nanoTime();
+
+        boolean tryConsume() {
+            lock.lock();
+            try {
+                refill();
+                if (tokens >= 1) {
+                    tokens--;
+                    return true;
+                }
+                return false;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean hasTokens() {
+            lock.lock();
+            try {
+                refill();
+                return tokens >= 1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        boolean isFull() {
+            lock.lock();
+            try {
+                refill();
+                return tokens >= capacity;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void refill() {
+            var now = System.nanoTime();
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillPerNano);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongSupplier;
+
+// Janela fora do heap com os tweets mais recentes (feed.offheap.enabled=true), usada para servir o GET /feed.
+//
+// Cada tweet é guardado num buffer circular direto (ByteBuffer.allocateDirect) já no formato da resposta:
+// o id, o conteúdo escapado em UTF-8 e o timestamp ISO vão prontos em bytes, e o autor é um índice na tabela
+// de usernames (cada username aparece uma vez só). Uma página do feed é montada copiando esses bytes para a
+// resposta, sem criar entidades, FeedItemDto ou Strings por tweet, e o heap não guarda nada por tweet além de
+// três longs (chave de ordenação, id e posição no buffer) em arrays alocados uma vez.
+//
+// - Os tweets novos entram pelo TweetCreatedEvent; os apagados viram tombstones (TweetDeletedEvent).
+// - Quando o buffer ou o índice enchem, os tweets mais antigos saem da janela.
+// - Páginas que vão além da janela (ou com a janela desligada) continuam vindo do banco.
+// - A janela é carregada do banco na inicialização com os feed.offheap.max-tweets tweets mais novos.
+//
+// O buffer direto conta em -XX:MaxDirectMemorySize (por padrão, o mesmo tamanho do heap máximo).
+@Service
+public class OffHeapFeedWindow implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(OffHeapFeedWindow.class);
+
+    private static final int PRELOAD_CHUNK_SIZE = 5_000;
+
+    private static final byte[] NULL = "null".getBytes(StandardCharsets.US_ASCII);
+
+    private final boolean enabled;
+
+    private final int maxTweets;
+
+    private final int capacity;
+
+    private final TweetRepository tweetRepository;
+
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Registros: [int autor][int n1][n1 bytes: {"tweetId":..,"content":..,"username":][int n2][n2 bytes: ,"creationTimestamp":".."}]
+    // As posições são "virtuais" (só crescem); a posição física é posição % capacity.
+    private final ByteBuffer data;
+
+    private long writePos;
+
+    // Índice ordenado do mais novo para o mais antigo, também circular: a posição lógica i (0 = mais novo)
+    // fica no slot (head - 1 - i) mod maxTweets
+    private final long[] keys;
+
+    private final long[] ids;
+
+    private final long[] offsets;
+
+    private final boolean[] tombstones;
+
+    private int head;
+
+    private int size;
+
+    // A janela tem todos os tweets do banco (nada saiu por falta de espaço): o fim da janela é o fim do feed
+    private boolean complete;
+
+    // Usernames já em JSON (com aspas e escapados); o registro guarda só o índice
+    private final Map<String, Integer> authorIndexes = new HashMap<>();
+
+    private final List<byte[]> authors = new ArrayList<>();
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public OffHeapFeedWindow(@Value("${feed.offheap.enabled:false}") boolean enabled,
+                             @Value("${feed.offheap.max-tweets:300000}") int maxTweets,
+                             @Value("${feed.offheap.capacity:128MB}") DataSize capacity,
+                             TweetRepository tweetRepository,
+                             TransactionTemplate transactionTemplate,
+                             MeterRegistry meterRegistry) {
+        this.enabled = enabled;
+        this.tweetRepository = tweetRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.maxTweets = enabled ? maxTweets : 0;
+        this.capacity = enabled ? (int) Math.min(capacity.toBytes(), Integer.MAX_VALUE - 8) : 0;
+        this.data = enabled ? ByteBuffer.allocateDirect(this.capacity) : null;
+        this.keys = new long[this.maxTweets];
+        this.ids = new long[this.maxTweets];
+        this.offsets = new long[this.maxTweets];
+        this.tombstones = new boolean[this.maxTweets];
+        this.hits = meterRegistry.counter("feed.offheap.requests", "result", "hit");
+        this.misses = meterRegistry.counter("feed.offheap.requests", "result", "miss");
+        meterRegistry.gauge("feed.offheap.tweets", this, OffHeapFeedWindow::size);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    // Carrega os tweets mais novos, do mais novo para o mais antigo, preenchendo o buffer do fim para o começo:
+    // assim as posições também crescem com o tempo e os primeiros a serem sobrescritos são os mais antigos.
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!enabled) {
+            return;
+        }
+        var start = System.nanoTime();
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransactionTemplate.execute(status -> {
+            lock.writeLock().lock();
+            try {
+                long position = capacity;
+                var chunk = tweetRepository.findFeedHead(Limit.of(PRELOAD_CHUNK_SIZE));
+                loading:
+                while (true) {
+                    for (var item : chunk) {
+                        var record = record(item.tweetId(), item.username(), item.content(), item.creationTimestamp());
+                        // Janela cheia (índice ou buffer) antes de acabarem os tweets do banco
+                        if (size == maxTweets || position < record.length()) {
+                            break loading;
+                        }
+                        position -= record.length();
+                        record.write(data, (int) position);
+                        set(Math.floorMod(head - 1 - size, maxTweets), key(item.creationTimestamp()), item.tweetId(), position);
+                        size++;
+                    }
+                    if (chunk.size() < PRELOAD_CHUNK_SIZE) {
+                        complete = true;
+                        break;
+                    }
+                    var last = chunk.get(chunk.size() - 1);
+                    chunk = tweetRepository.findFeedBefore(last.creationTimestamp(), last.tweetId(),
+                            Limit.of(PRELOAD_CHUNK_SIZE));
+                }
+                // A próxima escrita começa na volta seguinte (posição física 0): sobrescreve primeiro o espaço
+                // que sobrou no começo do buffer e depois os tweets carregados, do mais antigo para o mais novo
+                writePos = capacity;
+            } finally {
+                lock.writeLock().unlock();
+            }
+            return null;
+        }));
+        log.info("Off-heap feed window loaded with {} tweets ({}complete) in {} ms",
+                size, complete ? "" : "in", (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        if (!enabled || event.tweetId() == null || event.creationTimestamp() == null) {
+            return;
+        }
+        var record = record(event.tweetId(), event.username(), event.content(), event.creationTimestamp());
+        var key = key(event.creationTimestamp());
+
+        lock.writeLock().lock();
+        try {
+            // Posição na ordem do feed: quase sempre 0 (o mais novo); commits fora de ordem andam poucos passos
+            var position = 0;
+            while (position < size && isNewer(logicalSlot(position), key, event.tweetId())) {
+                position++;
+            }
+            if (position < size && ids[logicalSlot(position)] == event.tweetId()) {
+                return;
+            }
+            // Mais antigo que a janela inteira: só entra se a janela tem o feed completo
+            if (position == size && (!complete || size == maxTweets)) {
+                return;
+            }
+            if (record.length() > capacity) {
+                clear();
+                return;
+            }
+
+            var offset = writePos;
+            var physical = (int) (offset % capacity);
+            if (physical + record.length() > capacity) {
+                // Não cabe no fim do buffer: pula para o começo da próxima volta
+                offset += capacity - physical;
+                physical = 0;
+            }
+            record.write(data, physical);
+            writePos = offset + record.length();
+
+            insert(position, key, event.tweetId(), offset);
+
+            // Registros sobrescritos nesta volta saem da janela (os mais antigos ficam no fim do índice)
+            var validFrom = writePos - capacity;
+            while (size > 0 && offsets[logicalSlot(size - 1)] < validFrom) {
+                size--;
+                complete = false;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Apagar é raro: uma varredura dos ids (arrays de long, sem tocar no buffer) basta
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetDeleted(TweetDeletedEvent event) {
+        if (!enabled || event.tweetId() == null) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            for (int i = 0; i < size; i++) {
+                var slot = logicalSlot(i);
+                if (ids[slot] == event.tweetId()) {
+                    tombstones[slot] = true;
+                    return;
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // JSON do FeedDto da página pedida, ou null se a página não está inteira na janela (o chamador usa o banco).
+    // Com totalElements == null os totais vão como -1, como no feed sem contagem.
+    public byte[] renderPage(int page, int pageSize, LongSupplier totalElements) {
+        if (!enabled || page < 0 || pageSize < 1) {
+            return null;
+        }
+        var skip = (long) page * pageSize;
+
+        lock.readLock().lock();
+        JsonBytes out;
+        try {
+            if (skip >= size && !complete) {
+                misses.increment();
+                return null;
+            }
+            // A página nunca tem mais itens do que a janela; o buffer cresce se algum item for maior que a estimativa
+            out = new JsonBytes(256 + Math.min(pageSize, size) * 256);
+            out.write("{\"feedItens\":[");
+            var validFrom = writePos - capacity;
+            var reachable = complete;
+            var written = 0;
+            var live = 0L;
+            for (int i = 0; i < size && written < pageSize; i++) {
+                var slot = logicalSlot(i);
+                // Registro já sobrescrito no buffer: a janela termina aqui
+                if (offsets[slot] < validFrom) {
+                    reachable = false;
+                    break;
+                }
+                if (tombstones[slot]) {
+                    continue;
+                }
+                if (live++ < skip) {
+                    continue;
+                }
+                if (written++ > 0) {
+                    out.write(',');
+                }
+                writeItem(out, (int) (offsets[slot] % capacity));
+            }
+            // A página acabou antes de encher: só vale se a janela tem o feed todo
+            if (written < pageSize && !reachable) {
+                misses.increment();
+                return null;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        hits.increment();
+
+        // A contagem (se pedida) fica fora do lock
+        var total = totalElements == null ? -1L : totalElements.getAsLong();
+        var totalPages = total < 0 ? -1 : (int) Math.ceil((double) total / pageSize);
+        out.write("],\"page\":" + page + ",\"pageSize\":" + pageSize
+                + ",\"totalPages\":" + totalPages + ",\"totalElements\":" + total + "}");
+        return out.toByteArray();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void writeItem(JsonBytes out, int physical) {
+        var author = data.getInt(physical);
+        var firstLength = data.getInt(physical + 4);
+        out.copy(data, physical + 8, firstLength);
+        out.write(author < 0 ? NULL : authors.get(author));
+        var secondLength = data.getInt(physical + 8 + firstLength);
+        out.copy(data, physical + 12 + firstLength, secondLength);
+    }
+
+    // Insere na posição lógica `position`, deslocando os mais novos; com o índice cheio o mais antigo sai
+    private void insert(int position, long key, long tweetId, long offset) {
+        var oldHead = head;
+        for (int k = 0; k < position; k++) {
+            move(Math.floorMod(oldHead - 1 - k, maxTweets), Math.floorMod(oldHead - k, maxTweets));
+        }
+        set(Math.floorMod(oldHead - position, maxTweets), key, tweetId, offset);
+        head = (oldHead + 1) % maxTweets;
+        if (size == maxTweets) {
+            complete = false;
+        } else {
+            size++;
+        }
+    }
+
+    private void clear() {
+        size = 0;
+        complete = false;
+    }
+
+    private int logicalSlot(int position) {
+        return Math.floorMod(head - 1 - position, maxTweets);
+    }
+
+    private boolean isNewer(int slot, long key, long tweetId) {
+        return keys[slot] > key || (keys[slot] == key && ids[slot] > tweetId);
+    }
+
+    private void set(int slot, long key, long tweetId, long offset) {
+        keys[slot] = key;
+        ids[slot] = tweetId;
+        offsets[slot] = offset;
+        tombstones[slot] = false;
+    }
+
+    private void move(int from, int to) {
+        keys[to] = keys[from];
+        ids[to] = ids[from];
+        offsets[to] = offsets[from];
+        tombstones[to] = tombstones[from];
+    }
+
+    // Mesma precisão do banco (microssegundos), para a ordem e o timestamp baterem com o feed do banco
+    private static Instant truncate(Instant timestamp) {
+        return timestamp.truncatedTo(ChronoUnit.MICROS);
+    }
+
+    private static long key(Instant timestamp) {
+        var truncated = truncate(timestamp);
+        return truncated.getEpochSecond() * 1_000_000_000L + truncated.getNano();
+    }
+
+    // Monta os bytes do registro (fora do lock, exceto o índice do autor)
+    private Record record(long tweetId, String username, String content, Instant timestamp) {
+        var encoder = JsonStringEncoder.getInstance();
+
+        var first = new ByteArrayOutputStream(64 + (content == null ? 0 : content.length() * 2));
+        first.writeBytes(("{\"tweetId\":" + tweetId + ",\"content\":").getBytes(StandardCharsets.US_ASCII));
+        if (content == null) {
+            first.writeBytes(NULL);
+        } else {
+            first.write('"');
+            first.writeBytes(encoder.quoteAsUTF8(content));
+            first.write('"');
+        }
+        first.writeBytes(",\"username\":".getBytes(StandardCharsets.US_ASCII));
+
+        var second = (",\"creationTimestamp\":\"" + DateTimeFormatter.ISO_INSTANT.format(truncate(timestamp)) + "\"}")
+                .getBytes(StandardCharsets.US_ASCII);
+
+        return new Record(authorIndex(username), first.toByteArray(), second);
+    }
+
+    private int authorIndex(String username) {
+        if (username == null) {
+            return -1;
+        }
+        lock.writeLock().lock();
+        try {
+            return authorIndexes.computeIfAbsent(username, name -> {
+                var encoded = JsonStringEncoder.getInstance().quoteAsUTF8(name);
+                var quoted = new byte[encoded.length + 2];
+                quoted[0] = '"';
+                System.arraycopy(encoded, 0, quoted, 1, encoded.length);
+                quoted[quoted.length - 1] = '"';
+                authors.add(quoted);
+                return authors.size() - 1;
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private record Record(int author, byte[] first, byte[] second) {
+
+        int length() {
+            return 12 + first.length + second.length;
+        }
+
+        void write(ByteBuffer buffer, int physical) {
+            buffer.putInt(physical, author);
+            buffer.putInt(physical + 4, first.length);
+            buffer.put(physical + 8, first);
+            buffer.putInt(physical + 8 + first.length, second.length);
+            buffer.put(physical + 12 + first.length, second);
+        }
+    }
+
+    // Resposta em construção: um único array que cresce, preenchido direto do buffer
+    private static final class JsonBytes {
+
+        private byte[] bytes;
+
+        private int length;
+
+        JsonBytes(int initialCapacity) {
+            bytes = new byte[initialCapacity];
+        }
+
+        void write(int b) {
+            ensure(1);
+            bytes[length++] = (byte) b;
+        }
+
+        void write(byte[] src) {
+            ensure(src.length);
+            System.arraycopy(src, 0, bytes, length, src.length);
+            length += src.length;
+        }
+
+        void write(String ascii) {
+            write(ascii.getBytes(StandardCharsets.US_ASCII));
+        }
+
+        void copy(ByteBuffer buffer, int index, int count) {
+            ensure(count);
+            buffer.get(index, bytes, length, count);
+            length += count;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensure(int extra) {
+            if (length + extra > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.taina.copy_twitter.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Executa o bcrypt (caro por definição) em um pool próprio e limitado, fora das threads que
+// atendem as requisições. Uma rajada de logins ocupa no máximo esse pool e não impede o
+// Tomcat de continuar servindo o /feed. Com a fila do pool cheia a requisição recebe 503.
+@Service
+public class PasswordHashingService {
+
+    private final BCryptPasswordEncoder passwordEncoder;
+
+    private final ThreadPoolExecutor executor;
+
+    private final Timer encodeTimer;
+
+    private final Timer matchesTimer;
+
+    public PasswordHashingService(BCryptPasswordEncoder passwordEncoder,
+                                  @Value("${security.password.threads:0}") int threads,
+                                  @Value("${security.password.queue-capacity:256}") int queueCapacity,
+                                  MeterRegistry meterRegistry) {
+        this.passwordEncoder = passwordEncoder;
+
+        // 0 = uma thread por processador, já que o bcrypt só usa CPU
+        var poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        var counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    var thread = new Thread(runnable, "password-hashing-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = meterRegistry.timer("password.hash", "operation", "encode");
+        this.matchesTimer = meterRegistry.timer("password.hash", "operation", "matches");
+        meterRegistry.gauge("password.hash.queue", executor, e -> e.getQueue().size());
+    }
+
+    public CompletableFuture<String> encode(String rawPassword) {
+        return submit(() -> encodeTimer.record(() -> passwordEncoder.encode(rawPassword)));
+    }
+
+    public CompletableFuture<Boolean> matches(String rawPassword, String encodedPassword) {
+        return submit(() -> matchesTimer.record(() -> passwordEncoder.matches(rawPassword, encodedPassword)));
+    }
+
+    // true quando o hash foi gerado com um custo menor do que o configurado (security.bcrypt.strength)
+    public boolean needsRehash(String encodedPassword) {
+        return passwordEncoder.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> CompletableFuture<T> submit(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
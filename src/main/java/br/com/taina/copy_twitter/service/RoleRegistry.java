@@ -0,0 +1,40 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.repository.RoleRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Service;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+// As roles são dados de referência (ADMIN e BASIC, criadas pelo data.sql) e não mudam com a aplicação rodando.
+// São lidas uma vez na inicialização e ficam em um mapa imutável nome -> id; quem precisa associar uma role
+// a um usuário usa RoleRepository.getReferenceById(id), que não consulta o banco.
+@Service
+public class RoleRegistry implements SmartInitializingSingleton {
+
+    private final RoleRepository roleRepository;
+
+    private volatile Map<String, Long> idsByName = Map.of();
+
+    public RoleRegistry(RoleRepository roleRepository) {
+        this.roleRepository = roleRepository;
+    }
+
+    // Roda depois que o schema e o data.sql já existem, antes do servidor web aceitar requisições.
+    @Override
+    public void afterSingletonsInstantiated() {
+        idsByName = ReplicaRoutingDataSource.onPrimary(roleRepository::findAll).stream()
+                .collect(Collectors.toUnmodifiableMap(Role::getName, Role::getRoleId));
+    }
+
+    public Long idOf(Role.Values role) {
+        var id = idsByName.get(role.name());
+        if (id == null) {
+            throw new IllegalStateException("Role " + role.name() + " not found in tb_roles");
+        }
+        return id;
+    }
+}
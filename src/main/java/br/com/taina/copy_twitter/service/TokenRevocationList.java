@@ -0,0 +1,66 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.entity.RevokedToken;
+import br.com.taina.copy_twitter.repository.RevokedTokenRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Refresh tokens revogados, consultados em memória a cada POST /token/refresh (sem ir ao banco).
+//
+// O banco (tb_revoked_tokens) só recebe a escrita de cada revogação e é lido na inicialização, para a
+// lista sobreviver a um restart. Cada entrada só precisa existir até a expiração do token: a compactação
+// periódica remove as vencidas da memória e do banco, então o tamanho acompanha só as revogações recentes.
+@Service
+public class TokenRevocationList implements SmartInitializingSingleton {
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    // jti -> expiração do token (segundos desde a época)
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public TokenRevocationList(RevokedTokenRepository revokedTokenRepository,
+                               TransactionTemplate transactionTemplate) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        ReplicaRoutingDataSource.onPrimary(() -> revokedTokenRepository.findByExpiresAtAfter(Instant.now()))
+                .forEach(token -> revoked.put(token.getJti(), token.getExpiresAt().getEpochSecond()));
+    }
+
+    public boolean isRevoked(String jti) {
+        return jti != null && revoked.containsKey(jti);
+    }
+
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || expiresAt == null) {
+            return;
+        }
+        if (revoked.putIfAbsent(jti, expiresAt.getEpochSecond()) == null) {
+            transactionTemplate.executeWithoutResult(status ->
+                    revokedTokenRepository.save(new RevokedToken(jti, expiresAt)));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.revocation.compaction-interval:600000}")
+    public void compact() {
+        var now = Instant.now();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now.getEpochSecond());
+        revokedTokenRepository.deleteExpired(now);
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+}
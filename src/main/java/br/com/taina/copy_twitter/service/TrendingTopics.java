@@ -0,0 +1,202 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.TrendDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Hashtags em alta na última hora e nas últimas 24 horas, sem GROUP BY na tabela de tweets.
+//
+// Cada janela é dividida em baldes de tempo (1h = 12 baldes de 5 min, 24h = 24 baldes de 1h) e cada
+// balde é um count-min sketch: uma matriz de contadores atômicos que estima quantas vezes uma hashtag
+// apareceu, ocupando memória fixa. A escrita só incrementa contadores (sem lock); a estimativa de uma
+// hashtag na janela é a soma das estimativas dos baldes ainda dentro dela.
+//
+// As hashtags vistas recentemente ficam em um conjunto limitado de candidatas. De tempos em tempos o
+// top-k de cada janela é recalculado a partir delas com um heap; o GET /trends só lê essa lista pronta.
+@Service
+public class TrendingTopics {
+
+    public enum Window { HOUR, DAY }
+
+    private final SlidingWindow hour = new SlidingWindow(Duration.ofMinutes(5), 12);
+
+    private final SlidingWindow day = new SlidingWindow(Duration.ofHours(1), 24);
+
+    // hashtag -> última vez (epoch millis) em que apareceu
+    private final Map<String, Long> candidates = new ConcurrentHashMap<>();
+
+    private final int topK;
+
+    private final int maxCandidates;
+
+    private volatile List<TrendDto> hourTrends = List.of();
+
+    private volatile List<TrendDto> dayTrends = List.of();
+
+    public TrendingTopics(@Value("${trends.top-k:10}") int topK,
+                          @Value("${trends.max-candidates:10000}") int maxCandidates) {
+        this.topK = topK;
+        this.maxCandidates = maxCandidates;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        var now = event.creationTimestamp() != null ? event.creationTimestamp().toEpochMilli() : System.currentTimeMillis();
+        for (var hashtag : TweetTextParser.hashtags(event.content())) {
+            record(hashtag, now);
+        }
+    }
+
+    public void record(String hashtag, long nowMillis) {
+        hour.increment(hashtag, nowMillis);
+        day.increment(hashtag, nowMillis);
+
+        // Com o conjunto cheio, uma hashtag nova só entra se já tiver contagem para disputar o top-k
+        if (candidates.size() < maxCandidates || candidates.containsKey(hashtag)
+                || day.estimate(hashtag, nowMillis) >= minimumCount(dayTrends)) {
+            candidates.put(hashtag, nowMillis);
+        }
+    }
+
+    public List<TrendDto> trends(Window window) {
+        return window == Window.HOUR ? hourTrends : dayTrends;
+    }
+
+    // Recalcula o top-k das duas janelas e descarta as candidatas que saíram da janela de 24h
+    @Scheduled(fixedDelayString = "${trends.refresh-interval:10000}")
+    public void refresh() {
+        var now = System.currentTimeMillis();
+        candidates.values().removeIf(lastSeen -> now - lastSeen > Duration.ofHours(24).toMillis());
+        hourTrends = topK(hour, now);
+        dayTrends = topK(day, now);
+    }
+
+    private List<TrendDto> topK(SlidingWindow window, long now) {
+        // Heap de mínimo com k elementos: cada candidata só entra se superar a menor do heap
+        var heap = new PriorityQueue<TrendDto>(topK + 1, Comparator.comparingLong(TrendDto::count));
+        for (var hashtag : candidates.keySet()) {
+            var count = window.estimate(hashtag, now);
+            if (count == 0) {
+                continue;
+            }
+            if (heap.size() < topK) {
+                heap.add(new TrendDto(hashtag, count));
+            } else if (count > heap.peek().count()) {
+                heap.poll();
+                heap.add(new TrendDto(hashtag, count));
+            }
+        }
+        return heap.stream().sorted(Comparator.comparingLong(TrendDto::count).reversed()).toList();
+    }
+
+    private long minimumCount(List<TrendDto> trends) {
+        return trends.size() < topK ? 0 : trends.get(trends.size() - 1).count();
+    }
+
+    // Janela deslizante formada por um anel de count-min sketches, um por balde de tempo
+    static class SlidingWindow {
+
+        private final long bucketMillis;
+
+        private final CountMinSketch[] buckets;
+
+        // Número do balde (tempo / duração do balde) que cada posição do anel está contando
+        private final AtomicLongArray bucketEpochs;
+
+        SlidingWindow(Duration bucketDuration, int bucketCount) {
+            this.bucketMillis = bucketDuration.toMillis();
+            this.buckets = new CountMinSketch[bucketCount];
+            this.bucketEpochs = new AtomicLongArray(bucketCount);
+            for (int i = 0; i < bucketCount; i++) {
+                buckets[i] = new CountMinSketch(4, 4096);
+            }
+        }
+
+        void increment(String key, long nowMillis) {
+            var epoch = nowMillis / bucketMillis;
+            var index = (int) (epoch % buckets.length);
+            var current = bucketEpochs.get(index);
+            // A posição ainda guarda um balde antigo: quem ganhar o CAS zera os contadores
+            if (current < epoch && bucketEpochs.compareAndSet(index, current, epoch)) {
+                buckets[index].clear();
+            }
+            buckets[index].increment(key);
+        }
+
+        long estimate(String key, long nowMillis) {
+            var epoch = nowMillis / bucketMillis;
+            long total = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                if (epoch - bucketEpochs.get(i) < buckets.length) {
+                    total += buckets[i].estimate(key);
+                }
+            }
+            return total;
+        }
+    }
+
+    // Count-min sketch: `depth` linhas de `width` contadores, cada linha com a sua função de hash.
+    // A estimativa é o menor contador entre as linhas; nunca é menor que a contagem real.
+    static class CountMinSketch {
+
+        private final int depth;
+
+        private final int width;
+
+        private final AtomicLongArray counters;
+
+        CountMinSketch(int depth, int width) {
+            this.depth = depth;
+            this.width = width;
+            this.counters = new AtomicLongArray(depth * width);
+        }
+
+        void increment(String key) {
+            var hash = spread(key.hashCode());
+            var step = spread(hash ^ 0x9E3779B9) | 1;
+            for (int row = 0; row < depth; row++) {
+                counters.incrementAndGet(row * width + index(hash + row * step));
+            }
+        }
+
+        long estimate(String key) {
+            var hash = spread(key.hashCode());
+            var step = spread(hash ^ 0x9E3779B9) | 1;
+            var min = Long.MAX_VALUE;
+            for (int row = 0; row < depth; row++) {
+                min = Math.min(min, counters.get(row * width + index(hash + row * step)));
+            }
+            return min;
+        }
+
+        void clear() {
+            for (int i = 0; i < counters.length(); i++) {
+                counters.set(i, 0);
+            }
+        }
+
+        private int index(int hash) {
+            return Math.floorMod(hash, width);
+        }
+
+        private static int spread(int hash) {
+            hash ^= hash >>> 16;
+            hash *= 0x85EBCA6B;
+            hash ^= hash >>> 13;
+            hash *= 0xC2B2AE35;
+            hash ^= hash >>> 16;
+            return hash;
+        }
+    }
+}
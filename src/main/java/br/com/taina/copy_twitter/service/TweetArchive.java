@@ -0,0 +1,122 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+// Partições antigas do feed, fora do banco: um arquivo por dia em disco (tweets-<bucket>.ndjson.gz),
+// com um FeedItemDto por linha, do mais novo para o mais antigo, comprimido com gzip.
+//
+// Guarda só o que o feed mostra (id, conteúdo, autor e data); hashtags e menções ficam de fora.
+// Os arquivos são imutáveis depois de escritos, então a leitura não precisa de lock.
+@Service
+public class TweetArchive {
+
+    private static final Pattern FILE_NAME = Pattern.compile("tweets-(-?\\d+)\\.ndjson\\.gz");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Path directory;
+
+    private final ObjectReader reader;
+
+    private final ObjectWriter writer;
+
+    // Partição -> arquivo
+    private final NavigableMap<Integer, Path> buckets = new ConcurrentSkipListMap<>();
+
+    public TweetArchive(@Value("${tweets.archive.directory:data/archive}") Path directory,
+                        ObjectMapper objectMapper) throws IOException {
+        this.directory = Files.createDirectories(directory);
+        this.reader = objectMapper.readerFor(FeedItemDto.class);
+        this.writer = objectMapper.writerFor(FeedItemDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+                .withRootValueSeparator("\n");
+
+        // Catálogo das partições já arquivadas (de execuções anteriores)
+        try (var files = Files.list(directory)) {
+            files.forEach(file -> {
+                var matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches()) {
+                    buckets.put(Integer.parseInt(matcher.group(1)), file);
+                }
+            });
+        }
+    }
+
+    public boolean contains(int bucket) {
+        return buckets.containsKey(bucket);
+    }
+
+    // Partição arquivada mais nova que seja menor ou igual a `bucket`, ou null
+    public Integer floorBucket(int bucket) {
+        return buckets.floorKey(bucket);
+    }
+
+    // Grava a partição em um arquivo temporário e só então o renomeia: um arquivo pela metade nunca fica visível
+    public void write(int bucket, Iterator<FeedItemDto> items) {
+        try {
+            var temp = Files.createTempFile(directory, "tweets-" + bucket + "-", ".tmp");
+            try (var out = new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(temp), BUFFER_SIZE), BUFFER_SIZE);
+                 var sequence = writer.writeValues(out)) {
+                while (items.hasNext()) {
+                    sequence.write(items.next());
+                }
+            }
+            var file = Files.move(temp, directory.resolve("tweets-" + bucket + ".ndjson.gz"),
+                    StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            buckets.put(bucket, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not archive tweet partition " + bucket, e);
+        }
+    }
+
+    // Lê até `limit` itens da partição, começando logo depois de `before` (null = do começo).
+    // Descomprime o arquivo em stream, sem carregá-lo inteiro.
+    public List<FeedItemDto> read(int bucket, FeedCursor before, int limit) {
+        var file = buckets.get(bucket);
+        var result = new ArrayList<FeedItemDto>(Math.min(limit, 256));
+        if (file == null) {
+            return result;
+        }
+        try (var in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), BUFFER_SIZE), BUFFER_SIZE);
+             var items = reader.<FeedItemDto>readValues(in)) {
+            while (result.size() < limit && items.hasNext()) {
+                var item = items.next();
+                if (before == null || isBefore(item, before)) {
+                    result.add(item);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived tweet partition " + bucket, e);
+        }
+        return result;
+    }
+
+    // Mesma ordem do feed: timestamp decrescente, desempate pelo id
+    private static boolean isBefore(FeedItemDto item, FeedCursor cursor) {
+        var comparison = item.creationTimestamp().compareTo(cursor.creationTimestamp());
+        return comparison < 0 || (comparison == 0 && item.tweetId() < cursor.tweetId());
+    }
+}
@@ -0,0 +1,48 @@
+package br.com.taina.copy_twitter.service;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+// Reserva ids de tweet direto da sequência tb_tweets_seq, sem passar pelo Hibernate.
+// Usado pela escrita assíncrona, que precisa devolver o id antes de o tweet ser gravado.
+//
+// Segue a mesma regra do otimizador "pooled-lo" configurado para o Hibernate
+// (hibernate.id.optimizer.pooled.preferred=pooled-lo): cada valor V lido da sequência
+// reserva o bloco [V, V + allocationSize - 1]. Assim os blocos do Hibernate e os deste
+// alocador nunca se sobrepõem.
+@Service
+public class TweetIdAllocator {
+
+    // Precisa ser igual ao allocationSize do @SequenceGenerator da entidade Tweet
+    static final int ALLOCATION_SIZE = 50;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // A consulta à sequência acontece com o lock adquirido; com synchronized isso prenderia
+    // a thread portadora das virtual threads durante o acesso ao banco
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private long next;
+
+    private long last = -1;
+
+    public TweetIdAllocator(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next > last) {
+                var low = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR tb_tweets_seq", Long.class);
+                next = low;
+                last = low + ALLOCATION_SIZE - 1;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
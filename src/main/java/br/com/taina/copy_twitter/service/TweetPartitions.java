@@ -0,0 +1,164 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// Os tweets ficam particionados por dia (coluna calculada tb_tweets.bucket).
+//
+// - Partições "quentes" estão no banco; o feed por cursor consulta uma partição por vez, da mais nova para
+//   a mais antiga, e para assim que a página enche (normalmente só a partição de hoje é tocada).
+// - Partições mais antigas que tweets.retention.days são movidas para o TweetArchive (arquivo gzip em disco)
+//   e apagadas do banco, que fica só com os dias recentes. Quem pagina até lá continua recebendo os tweets,
+//   lidos do arquivo.
+// - Desligado por padrão (tweets.retention.days=0): os arquivos ficam em disco, mas o H2 em memória começa vazio
+//   a cada execução, e um arquivo de uma execução anterior teria ids que o banco novo volta a usar.
+@Service
+public class TweetPartitions implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetPartitions.class);
+
+    private static final long SECONDS_PER_BUCKET = 86_400;
+
+    // Ids por DELETE no arquivamento (tamanho da lista do IN)
+    private static final int DELETE_CHUNK_SIZE = 1000;
+
+    private final TweetRepository tweetRepository;
+
+    private final TweetArchive tweetArchive;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final int retentionDays;
+
+    // Partições que têm tweets no banco
+    private final NavigableSet<Integer> hotBuckets = new ConcurrentSkipListSet<>();
+
+    public TweetPartitions(TweetRepository tweetRepository,
+                           TweetArchive tweetArchive,
+                           TransactionTemplate transactionTemplate,
+                           ApplicationEventPublisher eventPublisher,
+                           @Value("${tweets.retention.days:0}") int retentionDays) {
+        this.tweetRepository = tweetRepository;
+        this.tweetArchive = tweetArchive;
+        this.transactionTemplate = transactionTemplate;
+        this.eventPublisher = eventPublisher;
+        this.retentionDays = retentionDays;
+    }
+
+    // Mesma conta da coluna calculada: dias (UTC) desde 1970-01-01
+    public static int bucketOf(Instant instant) {
+        return (int) Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_BUCKET);
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        hotBuckets.addAll(ReplicaRoutingDataSource.onPrimary(tweetRepository::findBuckets));
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        hotBuckets.add(bucketOf(event.creationTimestamp()));
+    }
+
+    // Até `limit` itens do feed depois de `before` (null = do começo), percorrendo as partições da mais nova
+    // para a mais antiga: primeiro as do banco, depois as arquivadas.
+    public List<FeedItemDto> feedBefore(FeedCursor before, int limit) {
+        var result = new ArrayList<FeedItemDto>(limit);
+        var cursorBucket = before == null ? Integer.MAX_VALUE : bucketOf(before.creationTimestamp());
+
+        var bucket = newestBucketAtOrBelow(cursorBucket);
+        while (bucket != null && result.size() < limit) {
+            // Só a partição do cursor precisa do filtro; as mais antigas vêm inteiras antes dele
+            var cursor = bucket == cursorBucket ? before : null;
+            var remaining = limit - result.size();
+
+            if (hotBuckets.contains(bucket)) {
+                result.addAll(cursor == null
+                        ? tweetRepository.findFeedHeadInBucket(bucket, Limit.of(remaining))
+                        : tweetRepository.findFeedBeforeInBucket(bucket, cursor.creationTimestamp(), cursor.tweetId(), Limit.of(remaining)));
+            } else {
+                result.addAll(tweetArchive.read(bucket, cursor, remaining));
+            }
+
+            bucket = bucket == Integer.MIN_VALUE ? null : newestBucketAtOrBelow(bucket - 1);
+        }
+        return result;
+    }
+
+    private Integer newestBucketAtOrBelow(int bucket) {
+        var hot = hotBuckets.floor(bucket);
+        var archived = tweetArchive.floorBucket(bucket);
+        if (hot == null) {
+            return archived;
+        }
+        return archived == null ? hot : Math.max(hot, archived);
+    }
+
+    // Retenção: move para o arquivo as partições mais antigas que tweets.retention.days (0 desativa)
+    @Scheduled(initialDelayString = "${tweets.retention.check-interval:3600000}",
+            fixedDelayString = "${tweets.retention.check-interval:3600000}")
+    public void archiveExpired() {
+        if (retentionDays <= 0) {
+            return;
+        }
+        var cutoff = bucketOf(Instant.now()) - retentionDays;
+        for (var bucket : List.copyOf(hotBuckets.headSet(cutoff))) {
+            archive(bucket);
+        }
+    }
+
+    private void archive(int bucket) {
+        // 1. grava o arquivo (a partição fica visível nos dois lugares; o feed prefere o banco)
+        var archivedIds = new ArrayList<Long>();
+        transactionTemplate.executeWithoutResult(status -> {
+            try (var items = tweetRepository.streamBucket(bucket)) {
+                tweetArchive.write(bucket, items.peek(item -> archivedIds.add(item.tweetId())).iterator());
+            }
+        });
+        // 2. o feed passa a ler do arquivo; 3. só então as linhas saem do banco.
+        // Só os ids gravados no arquivo são apagados: nada que não foi arquivado sai do banco.
+        hotBuckets.remove(bucket);
+        var deletedIds = new HashSet<Long>(archivedIds.size());
+        transactionTemplate.executeWithoutResult(status -> {
+            for (int from = 0; from < archivedIds.size(); from += DELETE_CHUNK_SIZE) {
+                var chunk = archivedIds.subList(from, Math.min(from + DELETE_CHUNK_SIZE, archivedIds.size()));
+                deletedIds.addAll(tweetRepository.deleteArchived(chunk));
+            }
+        });
+        // Um tweet apagado pelo autor entre a gravação do arquivo e o DELETE já não estava no banco:
+        // o arquivo é regravado sem ele, senão o tweet voltaria a aparecer no feed
+        if (deletedIds.size() < archivedIds.size()) {
+            var kept = tweetArchive.read(bucket, null, Integer.MAX_VALUE).stream()
+                    .filter(item -> deletedIds.contains(item.tweetId()))
+                    .toList();
+            tweetArchive.write(bucket, kept.iterator());
+        }
+        // 4. as estruturas em memória que guardam ids (índice de busca, cache do feed) esquecem esses tweets
+        eventPublisher.publishEvent(new TweetsArchivedEvent(bucket, archivedIds));
+        log.info("Archived tweet partition {} ({} tweets, {} deleted meanwhile)",
+                bucket, deletedIds.size(), archivedIds.size() - deletedIds.size());
+    }
+}
@@ -0,0 +1,285 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+// Índice invertido em memória para a busca de tweets: termo -> lista de tweets (posting list).
+//
+// Cada posting list guarda os tweets na ordem do feed, (creation_timestamp, tweet_id), em dois long[]
+// paralelos (chave de ordenação e id). Percorrer a lista de trás para frente devolve os tweets mais
+// recentes primeiro, e o cursor da paginação é o mesmo FeedCursor do /feed/cursor. A ordem dos ids
+// sozinha não serve: o Hibernate e o TweetIdAllocator reservam blocos diferentes da sequência ao mesmo tempo.
+//
+// O índice é montado quando a aplicação sobe e atualizado pelos eventos de criação/remoção.
+// Tweets apagados viram "tombstones" (ignorados na busca) e são retirados das listas pela
+// compactação periódica.
+@Service
+public class TweetSearchIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TweetSearchIndex.class);
+
+    private static final Pattern NON_WORD = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private static final int BUILD_CHUNK_SIZE = 5_000;
+
+    private final Map<String, PostingList> postings = new ConcurrentHashMap<>();
+
+    private final Set<Long> tombstones = ConcurrentHashMap.newKeySet();
+
+    private final TweetRepository tweetRepository;
+
+    private final int compactionThreshold;
+
+    public TweetSearchIndex(TweetRepository tweetRepository,
+                            @Value("${search.compaction-threshold:1000}") int compactionThreshold) {
+        this.tweetRepository = tweetRepository;
+        this.compactionThreshold = compactionThreshold;
+    }
+
+    // Monta o índice a partir do banco, em blocos, quando a aplicação termina de subir
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        var start = System.nanoTime();
+        long lastId = 0;
+        long indexed = 0;
+        while (true) {
+            var chunk = tweetRepository.findContentAfter(lastId, Limit.of(BUILD_CHUNK_SIZE));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            for (var tweet : chunk) {
+                add(FeedCursor.sortKey(tweet.creationTimestamp()), tweet.tweetId(), tweet.content());
+            }
+            lastId = chunk.get(chunk.size() - 1).tweetId();
+            indexed += chunk.size();
+        }
+        log.info("Search index built with {} tweets and {} terms in {} ms",
+                indexed, postings.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        add(FeedCursor.sortKey(event.creationTimestamp()), event.tweetId(), event.content());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetDeleted(TweetDeletedEvent event) {
+        tombstones.add(event.tweetId());
+    }
+
+    // Tweets arquivados saíram do banco e a busca não conseguiria mais resolvê-los: viram tombstones
+    // e a compactação os retira das listas
+    @EventListener
+    public void onTweetsArchived(TweetsArchivedEvent event) {
+        tombstones.addAll(event.tweetIds());
+    }
+
+    // Devolve a posição (timestamp e id) de até `limit` tweets anteriores a `before` (null: desde o mais recente),
+    // do mais recente para o mais antigo, que contêm todos os termos da consulta
+    public List<FeedCursor> search(String query, FeedCursor before, int limit) {
+
+        var terms = tokenize(query);
+        if (terms.isEmpty()) {
+            return List.of();
+        }
+
+        // Os locks são adquiridos sempre na ordem alfabética dos termos: duas buscas com os mesmos termos
+        // nunca ficam esperando uma pela outra (com um add() na fila de um dos locks, isso daria deadlock)
+        var lists = new ArrayList<PostingList>(terms.size());
+        for (var term : terms.stream().sorted().toList()) {
+            var list = postings.get(term);
+            if (list == null) {
+                return List.of(); // um termo sem nenhum tweet: a interseção é vazia
+            }
+            lists.add(list);
+        }
+
+        // Percorre a menor lista e confere os ids nas outras com busca binária.
+        // Só leitura: os locks de leitura das listas envolvidas ficam adquiridos durante a busca, e os tamanhos
+        // só são comparados depois disso (antes eles ainda podem mudar)
+        var locked = new ArrayList<PostingList>(lists.size());
+        try {
+            for (var list : lists) {
+                list.lock.readLock().lock();
+                locked.add(list);
+            }
+            lists.sort(Comparator.comparingInt(list -> list.size));
+            var smallest = lists.get(0);
+            var others = lists.subList(1, lists.size());
+
+            // Sem pré-alocar pelo limite: a lista cresce só com os tweets encontrados
+            var result = new ArrayList<FeedCursor>();
+            var end = before == null ? smallest.size : smallest.position(before.sortKey(), before.tweetId());
+            for (int i = end - 1; i >= 0 && result.size() < limit; i--) {
+                var key = smallest.keys[i];
+                var id = smallest.ids[i];
+                if (tombstones.contains(id)) {
+                    continue;
+                }
+                var inAll = true;
+                for (var other : others) {
+                    if (!other.contains(key, id)) {
+                        inAll = false;
+                        break;
+                    }
+                }
+                if (inAll) {
+                    result.add(FeedCursor.fromSortKey(key, id));
+                }
+            }
+            return result;
+        } finally {
+            locked.forEach(list -> list.lock.readLock().unlock());
+        }
+    }
+
+    // Retira os tweets apagados das posting lists
+    @Scheduled(fixedDelayString = "${search.compaction-interval:60000}")
+    public void compact() {
+        if (tombstones.size() < compactionThreshold) {
+            return;
+        }
+        var removed = Set.copyOf(tombstones);
+        postings.values().forEach(list -> list.removeAll(removed));
+        tombstones.removeAll(removed);
+    }
+
+    private void add(long key, long tweetId, String content) {
+        for (var term : tokenize(content)) {
+            postings.computeIfAbsent(term, t -> new PostingList()).add(key, tweetId);
+        }
+    }
+
+    // Minúsculas, sem acentos, separando em tudo que não for letra ou número ("#Café!" -> "cafe")
+    static Set<String> tokenize(String text) {
+        var terms = new LinkedHashSet<String>();
+        if (text == null) {
+            return terms;
+        }
+        var normalized = DIACRITICS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+        for (var term : NON_WORD.split(normalized.toLowerCase(Locale.ROOT))) {
+            if (!term.isEmpty() && term.length() <= MAX_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    // Tweets em ordem (chave de ordenação, id), em dois arrays paralelos que crescem conforme precisa
+    static class PostingList {
+
+        private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        private long[] keys = new long[4];
+
+        private long[] ids = new long[4];
+
+        private int size;
+
+        void add(long key, long id) {
+            lock.writeLock().lock();
+            try {
+                var position = position(key, id);
+                if (position < size && keys[position] == key && ids[position] == id) {
+                    return;
+                }
+                if (size == ids.length) {
+                    var capacity = size + (size >> 1) + 1;
+                    keys = Arrays.copyOf(keys, capacity);
+                    ids = Arrays.copyOf(ids, capacity);
+                }
+                System.arraycopy(keys, position, keys, position + 1, size - position);
+                System.arraycopy(ids, position, ids, position + 1, size - position);
+                keys[position] = key;
+                ids[position] = id;
+                size++;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        void removeAll(Set<Long> removed) {
+            lock.writeLock().lock();
+            try {
+                int kept = 0;
+                for (int i = 0; i < size; i++) {
+                    if (!removed.contains(ids[i])) {
+                        keys[kept] = keys[i];
+                        ids[kept++] = ids[i];
+                    }
+                }
+                size = kept;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        int size() {
+            lock.readLock().lock();
+            try {
+                return size;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        // Chamados com o lock
+
+        boolean contains(long key, long id) {
+            var position = position(key, id);
+            return position < size && keys[position] == key && ids[position] == id;
+        }
+
+        // Primeira posição com (chave, id) >= (key, id)
+        int position(long key, long id) {
+            // Quase sempre o tweet é o mais novo e entra no fim sem deslocar nada
+            if (size == 0 || isBefore(keys[size - 1], ids[size - 1], key, id)) {
+                return size;
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int mid = (low + high) >>> 1;
+                if (isBefore(keys[mid], ids[mid], key, id)) {
+                    low = mid + 1;
+                } else {
+                    high = mid;
+                }
+            }
+            return low;
+        }
+
+        private static boolean isBefore(long key, long id, long otherKey, long otherId) {
+            return key < otherKey || (key == otherKey && id < otherId);
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package br.com.taina.copy_twitter.service;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Extrai as #hashtags e as @menções do texto de um tweet.
+// As hashtags são normalizadas em minúsculas (#Java e #java contam como a mesma).
+public final class TweetTextParser {
+
+    // O # ou @ precisa estar no começo do texto ou depois de algo que não faça parte de uma palavra
+    // (assim "email@dominio" não vira menção)
+    private static final Pattern HASHTAG = Pattern.compile("(?<![\\p{L}\\p{N}_])#([\\p{L}\\p{N}_]{1,100})");
+
+    private static final Pattern MENTION = Pattern.compile("(?<![\\p{L}\\p{N}_.])@([A-Za-z0-9_.]{1,50})");
+
+    private TweetTextParser() {
+    }
+
+    public static Set<String> hashtags(String content) {
+        return extract(HASHTAG, content, true);
+    }
+
+    public static Set<String> mentions(String content) {
+        return extract(MENTION, content, false);
+    }
+
+    private static Set<String> extract(Pattern pattern, String content, boolean lowerCase) {
+        var values = new LinkedHashSet<String>();
+        if (content == null) {
+            return values;
+        }
+        var matcher = pattern.matcher(content);
+        while (matcher.find()) {
+            var value = matcher.group(1);
+            values.add(lowerCase ? value.toLowerCase(Locale.ROOT) : value);
+        }
+        return values;
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.dto.UserCredentialsRowDto;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+// Cache username -> (id, hash da senha, escopos) usado pelo login, com limite de tamanho (LRU) e tempo de vida.
+// Evita buscar o usuário e as roles no banco a cada login. Usuários inexistentes não ficam no cache
+// (um cadastro logo em seguida precisa ser visto). Quem altera um usuário chama invalidate(username).
+@Service
+public class UserCredentialsCache {
+
+    public record Credentials(UUID userId, String username, String passwordHash, String scopes) {
+    }
+
+    private record Entry(Credentials credentials, long expiresAt) {
+    }
+
+    private final UserRepository userRepository;
+
+    // A consulta é um método declarado no repositório: sem transação explícita ela não seria readOnly
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    private final Map<String, Entry> entries;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    private final long ttlNanos;
+
+    // Incrementado a cada invalidação: um usuário lido do banco antes dela não entra no cache depois
+    private long generation;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    public UserCredentialsCache(UserRepository userRepository,
+                                TransactionTemplate transactionTemplate,
+                                @Value("${users.credentials-cache.max-entries:10000}") int maxEntries,
+                                @Value("${users.credentials-cache.ttl:10m}") Duration ttl,
+                                MeterRegistry meterRegistry) {
+        this.userRepository = userRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+        this.ttlNanos = ttl.toNanos();
+        this.hits = meterRegistry.counter("users.credentials-cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("users.credentials-cache.requests", "result", "miss");
+
+        // LinkedHashMap em ordem de acesso: ao passar do limite remove a entrada usada há mais tempo
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public Optional<Credentials> get(String username) {
+
+        long generationBeforeLoad;
+        lock.lock();
+        try {
+            var entry = entries.get(username);
+            if (entry != null) {
+                if (entry.expiresAt() - System.nanoTime() > 0) {
+                    hits.increment();
+                    return Optional.of(entry.credentials());
+                }
+                entries.remove(username);
+            }
+            generationBeforeLoad = generation;
+        } finally {
+            lock.unlock();
+        }
+
+        misses.increment();
+        // Projeção (sem entidades no contexto de persistência) em uma transação readOnly, que pode ir para
+        // uma réplica de leitura. Se não encontrar, confirma no primário: o usuário pode ter acabado de se
+        // cadastrar e a réplica ainda não ter o registro. A confirmação abre outra transação, porque a conexão
+        // da primeira já está presa à réplica.
+        var rows = readOnlyTransactionTemplate.execute(status -> userRepository.findCredentialsByUsername(username));
+        if (rows == null || rows.isEmpty()) {
+            rows = ReplicaRoutingDataSource.onPrimary(
+                    () -> readOnlyTransactionTemplate.execute(status -> userRepository.findCredentialsByUsername(username)));
+        }
+        var credentials = toCredentials(rows);
+
+        credentials.ifPresent(value -> {
+            lock.lock();
+            try {
+                if (generation == generationBeforeLoad) {
+                    entries.put(username, new Entry(value, System.nanoTime() + ttlNanos));
+                }
+            } finally {
+                lock.unlock();
+            }
+        });
+        return credentials;
+    }
+
+    public void invalidate(String username) {
+        lock.lock();
+        try {
+            generation++;
+            entries.remove(username);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Optional<Credentials> toCredentials(List<UserCredentialsRowDto> rows) {
+        if (rows.isEmpty()) {
+            return Optional.empty();
+        }
+        // Caso o usuário tenha mais de uma role, os escopos ficam separados por espaço (formato do claim "scope")
+        var scopes = rows.stream()
+                .map(UserCredentialsRowDto::role)
+                .filter(Objects::nonNull)
+                .collect(Collectors.joining(" "));
+        var first = rows.get(0);
+        return Optional.of(new Credentials(first.userId(), first.username(), first.password(), scopes));
+    }
+}
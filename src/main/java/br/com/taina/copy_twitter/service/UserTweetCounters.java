@@ -0,0 +1,184 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.entity.UserTweetCounter;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.repository.UserTweetCounterRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Quantidade de tweets e momento do último tweet de cada usuário, mantidos em memória a partir dos eventos
+// de criação e remoção. A leitura é O(1): não depende de quantos tweets o usuário tem.
+//
+// Cada usuário tem um LongAdder (internamente dividido em células por thread, então autores muito ativos
+// não disputam a mesma variável). A cada users.counters.flush-interval os usuários que mudaram desde a última
+// gravação vão para tb_user_counters; no desligamento também. Na inicialização os contadores são lidos dessa tabela
+// ou, se ela estiver vazia (banco novo, massa gerada pelo perfil "seed"), recalculados a partir de tb_tweets.
+//
+// Tweets arquivados (TweetPartitions) continuam contando: eles saem do banco, mas não deixam de existir.
+@Service
+public class UserTweetCounters implements SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(UserTweetCounters.class);
+
+    public record Snapshot(long tweetCount, Instant lastTweetAt) {
+    }
+
+    private static final class Counter {
+
+        // Total atual (gravado + pendente)
+        final LongAdder count = new LongAdder();
+
+        final AtomicReference<Instant> lastTweetAt = new AtomicReference<>();
+
+        // Quanto do total já está em tb_user_counters (só o flush altera, com o flushLock)
+        long flushed;
+
+        Instant flushedLastTweetAt;
+
+        // Já existe linha em tb_user_counters para o usuário
+        boolean persisted;
+    }
+
+    private final UserTweetCounterRepository counterRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Map<UUID, Counter> counters = new ConcurrentHashMap<>();
+
+    // Um flush por vez (agendado e o do desligamento)
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    public UserTweetCounters(UserTweetCounterRepository counterRepository,
+                             TransactionTemplate transactionTemplate) {
+        this.counterRepository = counterRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        var start = System.nanoTime();
+        var rows = ReplicaRoutingDataSource.onPrimary(counterRepository::findAll);
+        var rebuilt = rows.isEmpty();
+        if (rebuilt) {
+            ReplicaRoutingDataSource.onPrimary(counterRepository::countTweetsByUser).forEach(row -> load(row, false));
+        } else {
+            rows.forEach(row -> load(row, true));
+        }
+        log.info("Tweet counters {} for {} users in {} ms", rebuilt ? "rebuilt" : "loaded",
+                counters.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // persisted=false quando o valor foi recalculado a partir de tb_tweets: o próximo flush cria a linha
+    private void load(UserTweetCounter row, boolean persisted) {
+        var counter = new Counter();
+        counter.count.add(row.getTweetCount());
+        counter.lastTweetAt.set(row.getLastTweetAt());
+        counter.persisted = persisted;
+        if (persisted) {
+            counter.flushed = row.getTweetCount();
+            counter.flushedLastTweetAt = row.getLastTweetAt();
+        }
+        counters.put(row.getUserId(), counter);
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetCreated(TweetCreatedEvent event) {
+        var counter = counters.computeIfAbsent(event.userId(), userId -> new Counter());
+        counter.count.increment();
+        var createdAt = event.creationTimestamp();
+        if (createdAt != null) {
+            counter.lastTweetAt.accumulateAndGet(createdAt,
+                    (current, candidate) -> current == null || candidate.isAfter(current) ? candidate : current);
+        }
+    }
+
+    // O momento do último tweet não volta atrás quando um tweet é apagado: o perfil usa a data do tweet
+    // mais recente que ainda existe, e este valor só quando o usuário não tem tweets no banco
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTweetDeleted(TweetDeletedEvent event) {
+        if (event.userId() == null) {
+            return;
+        }
+        counters.computeIfAbsent(event.userId(), userId -> new Counter()).count.decrement();
+    }
+
+    public Snapshot get(UUID userId) {
+        var counter = counters.get(userId);
+        if (counter == null) {
+            return new Snapshot(0, null);
+        }
+        return new Snapshot(Math.max(0, counter.count.sum()), counter.lastTweetAt.get());
+    }
+
+    // Grava só os usuários que mudaram desde o último flush, em uma transação
+    @Scheduled(fixedDelayString = "${users.counters.flush-interval:5000}")
+    public void flush() {
+        flushLock.lock();
+        try {
+            var changed = new HashMap<UUID, Snapshot>();
+            counters.forEach((userId, counter) -> {
+                var count = counter.count.sum();
+                var lastTweetAt = counter.lastTweetAt.get();
+                if (count != counter.flushed || !Objects.equals(lastTweetAt, counter.flushedLastTweetAt) || !counter.persisted) {
+                    changed.put(userId, new Snapshot(count, lastTweetAt));
+                }
+            });
+            if (changed.isEmpty()) {
+                return;
+            }
+
+            transactionTemplate.executeWithoutResult(status -> {
+                var rows = new ArrayList<UserTweetCounter>(changed.size());
+                var existing = new HashMap<UUID, UserTweetCounter>();
+                counterRepository.findAllById(changed.keySet()).forEach(row -> existing.put(row.getUserId(), row));
+                changed.forEach((userId, snapshot) -> {
+                    var row = existing.get(userId);
+                    if (row == null) {
+                        row = new UserTweetCounter(userId, snapshot.tweetCount(), snapshot.lastTweetAt());
+                    } else {
+                        row.setTweetCount(snapshot.tweetCount());
+                        row.setLastTweetAt(snapshot.lastTweetAt());
+                    }
+                    rows.add(row);
+                });
+                counterRepository.saveAll(rows);
+            });
+
+            // Só depois do commit: se a gravação falhar, a diferença continua pendente para o próximo flush
+            changed.forEach((userId, snapshot) -> {
+                var counter = counters.get(userId);
+                counter.flushed = snapshot.tweetCount();
+                counter.flushedLastTweetAt = snapshot.lastTweetAt();
+                counter.persisted = true;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Failed to flush tweet counters", e);
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+}
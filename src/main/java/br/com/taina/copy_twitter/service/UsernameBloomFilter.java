@@ -0,0 +1,103 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.configuration.ReplicaRoutingDataSource;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Filtro de Bloom com os usernames já usados, para o cadastro de usuários.
+//
+// Se o filtro diz que o username não está no conjunto, ele com certeza está livre e o cadastro pula a
+// consulta ao banco. Se diz que está, pode ser um falso positivo (taxa em users.bloom.false-positive-rate)
+// e o cadastro confirma no banco. O filtro só cresce (usernames não são removidos); mesmo que ele erre
+// para "livre" (por exemplo, um cadastro feito em outra instância), a constraint UNIQUE do username
+// ainda barra o duplicado.
+@Service
+public class UsernameBloomFilter implements SmartInitializingSingleton {
+
+    private final AtomicLongArray bits;
+
+    private final long bitCount;
+
+    private final int hashCount;
+
+    private final UserRepository userRepository;
+
+    // O Stream do repositório só pode ser lido dentro de uma transação
+    private final TransactionTemplate readOnlyTransactionTemplate;
+
+    public UsernameBloomFilter(UserRepository userRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${users.bloom.expected-users:1000000}") long expectedUsers,
+                               @Value("${users.bloom.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.readOnlyTransactionTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.readOnlyTransactionTemplate.setReadOnly(true);
+
+        // Tamanho ótimo: m = -n ln(p) / ln(2)^2 bits e k = m/n ln(2) funções de hash
+        var m = (long) Math.ceil(-expectedUsers * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.bits = new AtomicLongArray((int) ((m + 63) / 64));
+        this.bitCount = bits.length() * 64L;
+        this.hashCount = Math.max(1, (int) Math.round((double) m / expectedUsers * Math.log(2)));
+    }
+
+    // Carrega os usernames existentes (em stream, sem montar a lista) antes de o servidor aceitar requisições
+    @Override
+    public void afterSingletonsInstantiated() {
+        ReplicaRoutingDataSource.onPrimary(() -> readOnlyTransactionTemplate.execute(status -> {
+            try (var usernames = userRepository.streamUsernames()) {
+                usernames.forEach(this::add);
+            }
+            return null;
+        }));
+    }
+
+    public void add(String username) {
+        var hash1 = hash(username);
+        var hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            var bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            var word = (int) (bit >>> 6);
+            var mask = 1L << (bit & 63);
+            // Só escreve se o bit ainda não está ligado
+            if ((bits.get(word) & mask) == 0) {
+                bits.getAndUpdate(word, value -> value | mask);
+            }
+        }
+    }
+
+    // false = com certeza livre; true = talvez exista (confirmar no banco)
+    public boolean mightContain(String username) {
+        var hash1 = hash(username);
+        var hash2 = mix(hash1);
+        for (int i = 0; i < hashCount; i++) {
+            var bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((bits.get((int) (bit >>> 6)) & (1L << (bit & 63))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits sobre os bytes UTF-8 do username
+    private static long hash(String username) {
+        var hash = 0xcbf29ce484222325L;
+        for (var b : username.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= 0x100000001b3L;
+        }
+        return hash;
+    }
+
+    // Segundo hash derivado do primeiro (finalizador do SplitMix64), ímpar para percorrer todos os bits
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return (value ^ (value >>> 31)) | 1;
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.taina.copy_twitter.configuration;
+
+import br.com.taina.copy_twitter.entity.Tweet;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.SplittableRandom;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Perfil "seed" com uma massa pequena, em um banco só dele: o seeder grava ids fixos (1..seed.tweets)
+// e não pode dividir o banco com os outros testes
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:seed-test",
+        "reactive.r2dbc.url=r2dbc:h2:mem:///seed-test;DB_CLOSE_DELAY=-1",
+        "seed.users=50",
+        "seed.tweets=500",
+        "seed.follows-per-user=3",
+        "seed.batch-size=100"
+})
+@ActiveProfiles("seed")
+class BulkDataSeederTest {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private TweetRepository tweetRepository;
+
+    @Test
+    void seedsUsersFollowsAndTweets() {
+        assertThat(count("tb_users")).isEqualTo(51);  // os 50 gerados e o admin do AdminUserConfig
+        // Só os ids do seeder: o outro teste grava um tweet a mais
+        assertThat(jdbcTemplate.queryForObject("SELECT COUNT(*) FROM tb_tweets WHERE tweet_id <= 500", Long.class))
+                .isEqualTo(500);
+        assertThat(count("tb_follows")).isPositive().isLessThanOrEqualTo(50 * 3);
+        assertThat(userRepository.findUserIdByUsername(BulkDataSeeder.username(0))).isPresent();
+        assertThat(userRepository.findUserIdByUsername(BulkDataSeeder.username(49))).isPresent();
+    }
+
+    // A sequência recomeça depois dos ids usados pelo seeder
+    @Test
+    void newTweetsDoNotReuseSeededIds() {
+        var tweet = new Tweet();
+        tweet.setUser(userRepository.getReferenceById(userRepository.findUserIdByUsername(BulkDataSeeder.username(0)).orElseThrow()));
+        tweet.setContent("depois do seed");
+
+        assertThat(tweetRepository.save(tweet).getTweetId()).isGreaterThan(500L);
+    }
+
+    // Autoria concentrada: o primeiro usuário é sorteado bem mais vezes que o do meio da lista
+    @Test
+    void zipfFavorsTheFirstIndexes() {
+        var zipf = new BulkDataSeeder.Zipf(100, 1.1);
+        var random = new SplittableRandom(42);
+        var counts = new int[100];
+        for (int i = 0; i < 100_000; i++) {
+            counts[zipf.sample(random)]++;
+        }
+
+        assertThat(counts[0]).isGreaterThan(counts[1]).isGreaterThan(10 * counts[50]);
+    }
+
+    private long count(String table) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table, Long.class);
+    }
+}
@@ -0,0 +1,70 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+
+import java.time.Duration;
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CachingJwtDecoderTest {
+
+    private final JwtDecoder delegate = mock(JwtDecoder.class);
+
+    @Test
+    void verifiesEachTokenOnce() {
+        var decoder = new CachingJwtDecoder(delegate, 10, Duration.ofMinutes(5));
+        var jwt = jwt("a", Instant.now().plusSeconds(300));
+        when(delegate.decode("a")).thenReturn(jwt);
+
+        assertThat(decoder.decode("a")).isSameAs(jwt);
+        assertThat(decoder.decode("a")).isSameAs(jwt);
+
+        verify(delegate, times(1)).decode("a");
+    }
+
+    // Um token vencido volta para o decoder original, que é quem o rejeita
+    @Test
+    void neverServesATokenPastItsExpiry() {
+        var decoder = new CachingJwtDecoder(delegate, 10, Duration.ofMinutes(5));
+        when(delegate.decode("a")).thenReturn(jwt("a", Instant.now().minusSeconds(1)));
+
+        decoder.decode("a");
+        decoder.decode("a");
+
+        verify(delegate, times(2)).decode("a");
+    }
+
+    @Test
+    void dropsTheLeastRecentlyUsedToken() {
+        var decoder = new CachingJwtDecoder(delegate, 2, Duration.ofMinutes(5));
+        for (var token : new String[]{"a", "b", "c"}) {
+            when(delegate.decode(token)).thenReturn(jwt(token, Instant.now().plusSeconds(300)));
+        }
+
+        decoder.decode("a");
+        decoder.decode("b");
+        decoder.decode("a");
+        decoder.decode("c");
+        decoder.decode("a");
+        decoder.decode("b");
+
+        verify(delegate, times(1)).decode("a");
+        verify(delegate, times(2)).decode("b");
+    }
+
+    private static Jwt jwt(String token, Instant expiresAt) {
+        return Jwt.withTokenValue(token)
+                .header("alg", "RS256")
+                .subject("user")
+                .issuedAt(expiresAt.minusSeconds(600))
+                .expiresAt(expiresAt)
+                .build();
+    }
+}
@@ -0,0 +1,73 @@
+package br.com.taina.copy_twitter.configuration;
+
+import com.nimbusds.jose.JOSEException;
+import com.nimbusds.jose.JWSAlgorithm;
+import com.nimbusds.jose.crypto.ECDSAVerifier;
+import com.nimbusds.jose.jwk.Curve;
+import com.nimbusds.jose.jwk.gen.ECKeyGenerator;
+import com.nimbusds.jose.jwk.gen.RSAKeyGenerator;
+import com.nimbusds.jwt.SignedJWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.oauth2.jose.jws.SignatureAlgorithm;
+import org.springframework.security.oauth2.jwt.JwsHeader;
+import org.springframework.security.oauth2.jwt.JwtClaimsSet;
+import org.springframework.security.oauth2.jwt.JwtEncoderParameters;
+import org.springframework.security.oauth2.jwt.JwtEncodingException;
+import org.springframework.security.oauth2.jwt.NimbusJwtDecoder;
+
+import java.text.ParseException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PrebuiltJwtEncoderTest {
+
+    private static final Instant NOW = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @Test
+    void rsaTokensVerifyWithThePublicKey() throws JOSEException {
+        var key = new RSAKeyGenerator(2048).keyID("rsa").generate();
+        var encoder = new PrebuiltJwtEncoder(key);
+
+        var token = encoder.encode(JwtEncoderParameters.from(claims())).getTokenValue();
+        var decoded = NimbusJwtDecoder.withPublicKey(key.toRSAPublicKey()).build().decode(token);
+
+        assertThat(decoded.getSubject()).isEqualTo("ana");
+        assertThat(decoded.getClaimAsString("scope")).isEqualTo("BASIC");
+        assertThat(decoded.getExpiresAt()).isEqualTo(NOW.plusSeconds(300));
+        assertThat(decoded.getHeaders()).containsEntry("alg", "RS256").containsEntry("kid", "rsa");
+    }
+
+    @Test
+    void ecTokensVerifyWithThePublicKey() throws JOSEException, ParseException {
+        var key = new ECKeyGenerator(Curve.P_256).keyID("ec").generate();
+        var encoder = new PrebuiltJwtEncoder(key);
+
+        var token = SignedJWT.parse(encoder.encode(JwtEncoderParameters.from(claims())).getTokenValue());
+
+        assertThat(token.verify(new ECDSAVerifier(key.toPublicJWK()))).isTrue();
+        assertThat(token.getHeader().getAlgorithm()).isEqualTo(JWSAlgorithm.ES256);
+        assertThat(token.getJWTClaimsSet().getSubject()).isEqualTo("ana");
+    }
+
+    // O algoritmo é o da chave: pedir outro é erro de quem chamou, e não um token assinado de outro jeito
+    @Test
+    void rejectsAHeaderAskingForAnotherAlgorithm() throws JOSEException {
+        var encoder = new PrebuiltJwtEncoder(new ECKeyGenerator(Curve.P_256).generate());
+        var parameters = JwtEncoderParameters.from(JwsHeader.with(SignatureAlgorithm.RS256).build(), claims());
+
+        assertThatThrownBy(() -> encoder.encode(parameters)).isInstanceOf(JwtEncodingException.class);
+    }
+
+    private static JwtClaimsSet claims() {
+        return JwtClaimsSet.builder()
+                .issuer("mybackend")
+                .subject("ana")
+                .issuedAt(NOW)
+                .expiresAt(NOW.plusSeconds(300))
+                .claim("scope", "BASIC")
+                .build();
+    }
+}
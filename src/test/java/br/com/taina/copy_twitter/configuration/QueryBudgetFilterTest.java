@@ -0,0 +1,50 @@
+package br.com.taina.copy_twitter.configuration;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.servlet.HandlerMapping;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryBudgetFilterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final QueryBudgetFilter filter = new QueryBudgetFilter(meterRegistry, 10);
+
+    private final QueryCounter queryCounter = new QueryCounter();
+
+    @Test
+    void recordsStatementsAndEntitiesPerRoutePattern() throws Exception {
+        var request = new MockHttpServletRequest("DELETE", "/tweets/42");
+
+        filter.doFilter(request, new MockHttpServletResponse(), (req, res) -> {
+            req.setAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE, "/tweets/{id}");
+            queryCounter.inspect("select 1");
+            queryCounter.inspect("delete from tb_tweets");
+            queryCounter.onLoad(new Object(), (Object) 1L, null, null, null);
+        });
+
+        var statements = meterRegistry.get("http.server.requests.hibernate.statements")
+                .tag("method", "DELETE").tag("uri", "/tweets/{id}").summary();
+        var entities = meterRegistry.get("http.server.requests.hibernate.entities")
+                .tag("uri", "/tweets/{id}").summary();
+        assertThat(statements.count()).isEqualTo(1);
+        assertThat(statements.totalAmount()).isEqualTo(2);
+        assertThat(entities.totalAmount()).isEqualTo(1);
+    }
+
+    // Os contadores são por thread e zerados a cada requisição
+    @Test
+    void countsStartFromZeroOnEveryRequest() throws Exception {
+        queryCounter.inspect("select 1");
+
+        filter.doFilter(new MockHttpServletRequest("GET", "/feed"), new MockHttpServletResponse(),
+                (req, res) -> queryCounter.inspect("select 2"));
+
+        var statements = meterRegistry.get("http.server.requests.hibernate.statements").tag("uri", "UNKNOWN").summary();
+        assertThat(statements.totalAmount()).isEqualTo(1);
+    }
+}
@@ -0,0 +1,128 @@
+package br.com.taina.copy_twitter.configuration;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReplicaRoutingDataSourceTest {
+
+    private final Connection primaryConnection = mock(Connection.class);
+
+    private final Connection firstReplicaConnection = mock(Connection.class);
+
+    private final Connection secondReplicaConnection = mock(Connection.class);
+
+    private final DataSource primary = mock(DataSource.class);
+
+    private final DataSource firstReplica = mock(DataSource.class);
+
+    private final DataSource secondReplica = mock(DataSource.class);
+
+    private final ReplicaRoutingDataSource routing;
+
+    ReplicaRoutingDataSourceTest() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        when(firstReplica.getConnection()).thenReturn(firstReplicaConnection);
+        when(secondReplica.getConnection()).thenReturn(secondReplicaConnection);
+        var replicas = new LinkedHashMap<String, DataSource>();
+        replicas.put("replica-1", firstReplica);
+        replicas.put("replica-2", secondReplica);
+        routing = new ReplicaRoutingDataSource(primary, replicas, Duration.ofMinutes(1), Duration.ofSeconds(1));
+    }
+
+    @AfterEach
+    void clear() {
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(false);
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void readOnlyTransactionsAlternateBetweenTheReplicas() throws SQLException {
+        transaction(true);
+
+        assertThat(routing.getConnection()).isSameAs(firstReplicaConnection);
+        assertThat(routing.getConnection()).isSameAs(secondReplicaConnection);
+        assertThat(routing.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    void writesAndCodeOutsideTransactionsUseThePrimary() throws SQLException {
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        transaction(false);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+    }
+
+    @Test
+    void failedReplicasAreSkippedUntilTheHealthCheckPasses() throws SQLException {
+        when(firstReplica.getConnection()).thenThrow(new SQLException("down"));
+        transaction(true);
+
+        assertThat(routing.getConnection()).isSameAs(secondReplicaConnection);
+        assertThat(routing.getConnection()).isSameAs(secondReplicaConnection);
+
+        // Sem nenhuma réplica saudável a leitura vai para o primário
+        when(secondReplica.getConnection()).thenThrow(new SQLException("down"));
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        doReturn(firstReplicaConnection).when(firstReplica).getConnection();
+        when(firstReplicaConnection.isValid(1)).thenReturn(true);
+        routing.checkHealth();
+        assertThat(routing.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    // Read-your-writes: depois de uma escrita, as leituras do mesmo usuário ficam no primário
+    @Test
+    void readsFollowTheAuthorsOwnWritesToThePrimary() throws SQLException {
+        authenticate("ana");
+        transaction(false);
+        routing.getConnection();
+
+        transaction(true);
+        assertThat(routing.getConnection()).isSameAs(primaryConnection);
+
+        authenticate("bia");
+        assertThat(routing.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    @Test
+    void onPrimaryForcesThePrimaryInsideReadOnlyTransactions() throws SQLException {
+        transaction(true);
+
+        assertThat(ReplicaRoutingDataSource.onPrimary(this::connection)).isSameAs(primaryConnection);
+        assertThat(routing.getConnection()).isSameAs(firstReplicaConnection);
+    }
+
+    private Connection connection() {
+        try {
+            return routing.getConnection();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void transaction(boolean readOnly) {
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(readOnly);
+    }
+
+    private static void authenticate(String subject) {
+        var jwt = Jwt.withTokenValue("token").header("alg", "RS256").subject(subject).build();
+        SecurityContextHolder.getContext().setAuthentication(new JwtAuthenticationToken(jwt));
+    }
+}
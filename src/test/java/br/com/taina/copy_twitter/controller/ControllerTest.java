@@ -0,0 +1,74 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.entity.Tweet;
+import br.com.taina.copy_twitter.entity.User;
+import br.com.taina.copy_twitter.repository.RoleRepository;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Set;
+import java.util.UUID;
+
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.jwt;
+
+// Base dos testes HTTP: a aplicação inteira sobe com o H2 em memória, compartilhado por todas as classes
+// de teste (o contexto do Spring é reaproveitado). Cada teste cria os próprios usuários, com nomes únicos,
+// e não conta com tabelas vazias.
+@SpringBootTest
+@AutoConfigureMockMvc
+abstract class ControllerTest {
+
+    @Autowired
+    protected MockMvc mockMvc;
+
+    @Autowired
+    protected UserRepository userRepository;
+
+    @Autowired
+    protected RoleRepository roleRepository;
+
+    @Autowired
+    protected TweetRepository tweetRepository;
+
+    @Autowired
+    protected TransactionTemplate transactionTemplate;
+
+    // A role precisa estar gerenciada quando o usuário é gravado (cascade ALL nas roles)
+    protected User user(String prefix, Role.Values role) {
+        return transactionTemplate.execute(status -> {
+            var user = new User();
+            user.setUsername(prefix + "_" + UUID.randomUUID().toString().substring(0, 8));
+            user.setPassword("hash");
+            user.setRoles(Set.of(roleRepository.findByName(role.name())));
+            return userRepository.save(user);
+        });
+    }
+
+    protected User user(String prefix) {
+        return user(prefix, Role.Values.BASIC);
+    }
+
+    protected Tweet tweet(User author, String content) {
+        var tweet = new Tweet();
+        tweet.setUser(author);
+        tweet.setContent(content);
+        return tweetRepository.save(tweet);
+    }
+
+    // Token JWT já "decodificado", com os mesmos claims e escopos que o /login emite
+    protected static RequestPostProcessor as(User user) {
+        return jwt().jwt(jwt -> jwt.subject(user.getUserId().toString()).claim("username", user.getUsername()))
+                .authorities(user.getRoles().stream()
+                        .<GrantedAuthority>map(role -> new SimpleGrantedAuthority("SCOPE_" + role.getName()))
+                        .toList());
+    }
+}
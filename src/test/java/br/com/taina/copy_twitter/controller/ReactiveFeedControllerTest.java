@@ -0,0 +1,58 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class ReactiveFeedControllerTest extends ControllerTest {
+
+    private User reader;
+
+    @BeforeEach
+    void setUp() {
+        reader = user("reader");
+    }
+
+    // O R2DBC lê o mesmo banco em que o JPA grava
+    @Test
+    void readsTheFeedAndUsersWrittenThroughJpa() throws Exception {
+        var author = user("reactive");
+        tweet(author, "lido pelo r2dbc");
+
+        dispatch(get("/reactive/feed").param("pageSize", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens.length()").value(1))
+                .andExpect(jsonPath("$.totalElements").isNumber());
+
+        dispatch(get("/reactive/users/{username}", author.getUsername()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userId").value(author.getUserId().toString()));
+
+        dispatch(get("/reactive/users/{username}", "ninguem-" + author.getUsername()))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void rejectsPagesOutsideTheLimits() throws Exception {
+        for (var path : new String[]{"/reactive/feed", "/reactive/feed/stream"}) {
+            dispatch(get(path).param("pageSize", "101")).andExpect(status().isBadRequest());
+            dispatch(get(path).param("pageSize", "0")).andExpect(status().isBadRequest());
+            dispatch(get(path).param("page", String.valueOf(Integer.MAX_VALUE)).param("pageSize", "100"))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // O Mono/Flux vira uma resposta assíncrona: o resultado chega no segundo dispatch
+    private ResultActions dispatch(MockHttpServletRequestBuilder builder) throws Exception {
+        var result = mockMvc.perform(builder.with(as(reader))).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.taina.copy_twitter.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class SearchControllerTest extends ControllerTest {
+
+    @Test
+    void findsTweetsCreatedThroughTheApi() throws Exception {
+        var author = user("search");
+        var word = "termo" + UUID.randomUUID().toString().replace("-", "");
+
+        mockMvc.perform(post("/tweets").with(as(author))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"primeiro " + word + "\"}"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post("/tweets").with(as(author))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"segundo " + word + "\"}"))
+                .andExpect(status().isOk());
+
+        var firstPage = mockMvc.perform(get("/search").param("q", word).param("pageSize", "1").with(as(author)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens.length()").value(1))
+                .andExpect(jsonPath("$.feedItens[0].content").value("segundo " + word))
+                .andExpect(jsonPath("$.feedItens[0].username").value(author.getUsername()))
+                .andReturn();
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/search").param("q", word).param("pageSize", "1").param("before", nextCursor)
+                        .with(as(author)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens[0].content").value("primeiro " + word))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+
+        mockMvc.perform(get("/search").param("q", word).param("before", "invalido").with(as(author)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsPageSizesOutsideTheLimit() throws Exception {
+        var user = user("search");
+
+        for (var pageSize : new String[]{"0", "101", "300000000", String.valueOf(Integer.MAX_VALUE)}) {
+            mockMvc.perform(get("/search").param("q", "java").param("pageSize", pageSize).with(as(user)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
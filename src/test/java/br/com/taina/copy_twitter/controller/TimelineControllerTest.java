@@ -0,0 +1,54 @@
+package br.com.taina.copy_twitter.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TimelineControllerTest extends ControllerTest {
+
+    @Test
+    void showsOwnTweetsAndTweetsFromFollowedUsers() throws Exception {
+        var reader = user("reader");
+        var followed = user("followed");
+        var stranger = user("stranger");
+        tweet(reader, "do leitor");
+        tweet(followed, "de quem ele segue");
+        tweet(stranger, "de um desconhecido");
+
+        mockMvc.perform(post("/users/{username}/follow", followed.getUsername()).with(as(reader)))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/timeline").with(as(reader)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens.length()").value(2))
+                .andExpect(jsonPath("$.feedItens[0].content").value("de quem ele segue"))
+                .andExpect(jsonPath("$.feedItens[1].content").value("do leitor"));
+
+        var firstPage = mockMvc.perform(get("/timeline").param("pageSize", "1").with(as(reader)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens.length()").value(1))
+                .andReturn();
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/timeline").param("pageSize", "1").param("before", nextCursor).with(as(reader)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens[0].content").value("do leitor"));
+
+        mockMvc.perform(get("/timeline").param("before", "invalido").with(as(reader)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void rejectsPageSizesOutsideTheLimit() throws Exception {
+        var reader = user("reader");
+
+        for (var pageSize : new String[]{"0", "101", String.valueOf(Integer.MAX_VALUE)}) {
+            mockMvc.perform(get("/timeline").param("pageSize", pageSize).with(as(reader)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+}
@@ -0,0 +1,131 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.User;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+import java.util.UUID;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// O limite de tentativas de login é por IP: cada teste usa o próprio endereço para não gastar as fichas dos outros
+class TokenControllerTest extends ControllerTest {
+
+    private static final String PASSWORD = "senha-forte";
+
+    @Autowired
+    private BCryptPasswordEncoder passwordEncoder;
+
+    @Test
+    void loginIssuesATokenTheApiAccepts() throws Exception {
+        var user = userWithPassword("login");
+        var address = address();
+
+        var response = login(user.getUsername(), PASSWORD, address)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.expiresIn").value(300))
+                .andExpect(jsonPath("$.refreshToken").isNotEmpty())
+                .andReturn();
+        String accessToken = JsonPath.read(response.getResponse().getContentAsString(), "$.acessToken");
+
+        mockMvc.perform(get("/feed/cursor").header("Authorization", "Bearer " + accessToken))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void wrongPasswordsAndUnknownUsersAreUnauthorized() throws Exception {
+        var user = userWithPassword("login");
+        var address = address();
+
+        login(user.getUsername(), "errada", address).andExpect(status().isUnauthorized());
+        mockMvc.perform(post("/login").with(address)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("ninguem-" + user.getUsername(), PASSWORD)))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // O IP estourou o limite: 429 antes de consultar o usuário ou rodar o bcrypt
+    @Test
+    void tooManyAttemptsFromOneAddressAreRejected() throws Exception {
+        var address = address();
+
+        for (int i = 0; i < 10; i++) {
+            mockMvc.perform(post("/login").with(address)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body("ninguem-" + i, PASSWORD)))
+                    .andExpect(status().isUnauthorized());
+        }
+        mockMvc.perform(post("/login").with(address)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body("ninguem", PASSWORD)))
+                .andExpect(status().isTooManyRequests());
+    }
+
+    // O refresh token troca por tokens de acesso novos até ser revogado; um token de acesso não serve de refresh
+    @Test
+    void refreshTokensWorkUntilRevoked() throws Exception {
+        var user = userWithPassword("refresh");
+        var response = login(user.getUsername(), PASSWORD, address())
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String refreshToken = JsonPath.read(response, "$.refreshToken");
+        String accessToken = JsonPath.read(response, "$.acessToken");
+
+        refresh(refreshToken)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.acessToken").isNotEmpty())
+                .andExpect(jsonPath("$.refreshToken").value(refreshToken));
+        refresh(accessToken).andExpect(status().isUnauthorized());
+
+        mockMvc.perform(post("/token/revoke")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"refreshToken\":\"" + refreshToken + "\"}"))
+                .andExpect(status().isOk());
+        refresh(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    private User userWithPassword(String prefix) {
+        var user = user(prefix);
+        userRepository.updatePassword(user.getUserId(), passwordEncoder.encode(PASSWORD));
+        return user;
+    }
+
+    // O bcrypt roda fora da thread da requisição: a resposta só sai depois do dispatch assíncrono
+    private ResultActions login(String username, String password, RequestPostProcessor address) throws Exception {
+        var result = mockMvc.perform(post("/login").with(address)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body(username, password)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+
+    private ResultActions refresh(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/token/refresh")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"refreshToken\":\"" + refreshToken + "\"}"));
+    }
+
+    private static String body(String username, String password) {
+        return "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}";
+    }
+
+    private static RequestPostProcessor address() {
+        // O limitador só usa o endereço como chave
+        var address = "client-" + UUID.randomUUID();
+        return request -> {
+            request.setRemoteAddr(address);
+            return request;
+        };
+    }
+}
@@ -0,0 +1,203 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.entity.User;
+import com.jayway.jsonpath.JsonPath;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class TweetControllerTest extends ControllerTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    // O feed sai projetado em FeedItemDto, com o username no mesmo SELECT: nenhum User (nem Tweet) é carregado
+    @Test
+    void feedPagesLoadNoEntities() throws Exception {
+        var first = user("feed");
+        var second = user("feed");
+        postTweet(first, "do primeiro");
+        postTweet(second, "do segundo");
+        var statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        mockMvc.perform(get("/feed").param("pageSize", "2").with(as(first)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens[0].username").value(second.getUsername()))
+                .andExpect(jsonPath("$.feedItens[1].username").value(first.getUsername()))
+                .andExpect(jsonPath("$.pageSize").value(2));
+
+        // O tweet novo invalidou o cache: a página veio do banco
+        assertThat(statistics.getQueryExecutionCount()).isPositive();
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void feedWithoutCountSkipsTheTotals() throws Exception {
+        var reader = user("feed");
+        postTweet(reader, "sem contagem");
+
+        mockMvc.perform(get("/feed").param("count", "false").with(as(reader)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens[0].content").value("sem contagem"))
+                .andExpect(jsonPath("$.totalElements").value(-1));
+    }
+
+    // Os tweets mais novos do banco são os criados aqui: cada página começa neles
+    @Test
+    void cursorFeedWalksFromTheNewestTweet() throws Exception {
+        var author = user("cursor");
+        postTweet(author, "cursor 1");
+        postTweet(author, "cursor 2");
+        postTweet(author, "cursor 3");
+
+        var firstPage = mockMvc.perform(get("/feed/cursor").param("pageSize", "2").with(as(author)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens.length()").value(2))
+                .andExpect(jsonPath("$.feedItens[0].content").value("cursor 3"))
+                .andExpect(jsonPath("$.feedItens[1].content").value("cursor 2"))
+                .andReturn();
+        String nextCursor = JsonPath.read(firstPage.getResponse().getContentAsString(), "$.nextCursor");
+
+        mockMvc.perform(get("/feed/cursor").param("pageSize", "2").param("before", nextCursor).with(as(author)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.feedItens[0].content").value("cursor 1"));
+    }
+
+    @Test
+    void cursorFeedRejectsInvalidRequests() throws Exception {
+        var reader = user("cursor");
+
+        mockMvc.perform(get("/feed/cursor").param("before", "invalido").with(as(reader)))
+                .andExpect(status().isBadRequest());
+        for (var pageSize : new String[]{"0", "101"}) {
+            mockMvc.perform(get("/feed/cursor").param("pageSize", pageSize).with(as(reader)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void ownerDeletesTheirTweet() throws Exception {
+        var author = user("author");
+        var tweet = tweet(author, "meu tweet");
+
+        mockMvc.perform(delete("/tweets/{id}", tweet.getTweetId()).with(as(author)))
+                .andExpect(status().isOk());
+
+        assertThat(tweetRepository.existsById(tweet.getTweetId())).isFalse();
+    }
+
+    // Itens inválidos são rejeitados um a um; os outros são criados e voltam com o id na posição do pedido
+    @Test
+    void batchCreatesTheValidTweets() throws Exception {
+        var author = user("batch");
+        var body = "[{\"content\":\"primeiro #lote\"},{\"content\":\" \"},{\"content\":\"" + "x".repeat(256)
+                + "\"},{\"content\":\"último\"}]";
+
+        var result = mockMvc.perform(post("/tweets/batch").with(as(author))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(2))
+                .andExpect(jsonPath("$.rejected").value(2))
+                .andExpect(jsonPath("$.results[1].error").value("content is required"))
+                .andExpect(jsonPath("$.results[2].tweetId").doesNotExist())
+                .andReturn();
+
+        Number firstId = JsonPath.read(result.getResponse().getContentAsString(), "$.results[0].tweetId");
+        Number lastId = JsonPath.read(result.getResponse().getContentAsString(), "$.results[3].tweetId");
+        var first = tweetRepository.findById(firstId.longValue()).orElseThrow();
+        assertThat(first.getContent()).isEqualTo("primeiro #lote");
+        assertThat(tweetRepository.findById(lastId.longValue()).orElseThrow().getContent()).isEqualTo("último");
+    }
+
+    @Test
+    void batchRejectsEmptyAndOversizedBatches() throws Exception {
+        var author = user("batch");
+        var oversized = "[" + String.join(",", Collections.nCopies(1001, "{\"content\":\"a\"}")) + "]";
+
+        for (var body : new String[]{"[]", oversized}) {
+            mockMvc.perform(post("/tweets/batch").with(as(author))
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(body))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    // O DELETE em massa não passa pelas coleções da entidade: hashtags e menções saem pelo ON DELETE CASCADE
+    @Test
+    void deletesATweetWithHashtagsAndMentions() throws Exception {
+        var author = user("author");
+        var tweet = transactionTemplate.execute(status -> {
+            var entity = tweet(author, "#java com @ana");
+            entity.setHashtags(new HashSet<>(Set.of("java")));
+            entity.setMentions(new HashSet<>(Set.of("ana")));
+            return entity;
+        });
+
+        mockMvc.perform(delete("/tweets/{id}", tweet.getTweetId()).with(as(author)))
+                .andExpect(status().isOk());
+
+        assertThat(tweetRepository.existsById(tweet.getTweetId())).isFalse();
+    }
+
+    @Test
+    void adminDeletesAnyTweet() throws Exception {
+        var author = user("author");
+        var admin = user("admin", Role.Values.ADMIN);
+        var tweet = tweet(author, "tweet de outro");
+
+        mockMvc.perform(delete("/tweets/{id}", tweet.getTweetId()).with(as(admin)))
+                .andExpect(status().isOk());
+
+        assertThat(tweetRepository.existsById(tweet.getTweetId())).isFalse();
+    }
+
+    @Test
+    void otherUsersAreForbidden() throws Exception {
+        var author = user("author");
+        var other = user("other");
+        var tweet = tweet(author, "tweet de outro");
+
+        mockMvc.perform(delete("/tweets/{id}", tweet.getTweetId()).with(as(other)))
+                .andExpect(status().isForbidden());
+
+        assertThat(tweetRepository.existsById(tweet.getTweetId())).isTrue();
+    }
+
+    @Test
+    void unknownTweetIsNotFound() throws Exception {
+        var author = user("author");
+
+        mockMvc.perform(delete("/tweets/{id}", Long.MAX_VALUE).with(as(author)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void requiresAToken() throws Exception {
+        mockMvc.perform(delete("/tweets/{id}", 1L))
+                .andExpect(status().isUnauthorized());
+    }
+
+    // Pela API, e não direto no repositório, para que o evento do tweet novo invalide o cache do feed
+    private void postTweet(User author, String content) throws Exception {
+        mockMvc.perform(post("/tweets").with(as(author))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"content\":\"" + content + "\"}"))
+                .andExpect(status().isOk());
+    }
+}
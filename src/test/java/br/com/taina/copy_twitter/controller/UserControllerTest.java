@@ -0,0 +1,109 @@
+package br.com.taina.copy_twitter.controller;
+
+import br.com.taina.copy_twitter.entity.Role;
+import br.com.taina.copy_twitter.entity.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+class UserControllerTest extends ControllerTest {
+
+    @Test
+    void signsUpAndRejectsATakenUsername() throws Exception {
+        var body = "{\"username\":\"novo_" + UUID.randomUUID().toString().substring(0, 8) + "\",\"password\":\"123\"}";
+
+        var result = mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    // GET /users/stream é a listagem em NDJSON: um usuário "stream" nunca teria o perfil visível
+    @Test
+    void reservesUsernamesThatClashWithUserRoutes() throws Exception {
+        mockMvc.perform(post("/users").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"username\":\"stream\",\"password\":\"123\"}"))
+                .andExpect(status().isUnprocessableEntity());
+    }
+
+    @Test
+    void showsTheProfileWithTheRecentTweets() throws Exception {
+        var author = user("perfil");
+        var reader = user("leitor");
+        tweet(author, "primeiro");
+        tweet(author, "segundo");
+
+        mockMvc.perform(get("/users/{username}", author.getUsername()).param("recent", "1").with(as(reader)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.username").value(author.getUsername()))
+                .andExpect(jsonPath("$.recentTweets.length()").value(1))
+                .andExpect(jsonPath("$.recentTweets[0].content").value("segundo"));
+
+        mockMvc.perform(get("/users/{username}", "ninguem-" + author.getUsername()).with(as(reader)))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/users/{username}", author.getUsername()).param("recent", "-1").with(as(reader)))
+                .andExpect(status().isBadRequest());
+    }
+
+    // Páginas em ordem de username, continuando depois do último da página anterior
+    @Test
+    void listsUsersInPagesForAdmins() throws Exception {
+        var admin = user("admin", Role.Values.ADMIN);
+        var prefix = "lista" + UUID.randomUUID().toString().substring(0, 8);
+        var usernames = Stream.of(user(prefix), user(prefix), user(prefix)).map(User::getUsername).sorted().toList();
+
+        mockMvc.perform(get("/users").param("after", prefix).param("pageSize", "2").with(as(admin)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value(usernames.get(0)))
+                .andExpect(jsonPath("$.users[1].username").value(usernames.get(1)))
+                .andExpect(jsonPath("$.users[0].password").doesNotExist())
+                .andExpect(jsonPath("$.nextAfter").value(usernames.get(1)));
+
+        mockMvc.perform(get("/users").param("after", usernames.get(1)).param("pageSize", "1").with(as(admin)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.users[0].username").value(usernames.get(2)));
+    }
+
+    @Test
+    void listingUsersNeedsAnAdminAndABoundedPage() throws Exception {
+        var admin = user("admin", Role.Values.ADMIN);
+        var basic = user("basic");
+
+        mockMvc.perform(get("/users").with(as(basic)))
+                .andExpect(status().isForbidden());
+        for (var pageSize : new String[]{"0", "1001"}) {
+            mockMvc.perform(get("/users").param("pageSize", pageSize).with(as(admin)))
+                    .andExpect(status().isBadRequest());
+        }
+    }
+
+    @Test
+    void streamsAllUsersToAdminsOnly() throws Exception {
+        var admin = user("admin", Role.Values.ADMIN);
+        var basic = user("basic");
+
+        var result = mockMvc.perform(get("/users/stream").with(as(admin)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"username\":\"" + basic.getUsername() + "\"")));
+
+        mockMvc.perform(get("/users/stream").with(as(basic)))
+                .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,36 @@
+package br.com.taina.copy_twitter.dto;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FeedCursorTest {
+
+    @Test
+    void decodesWhatItEncodes() {
+        var cursor = new FeedCursor(Instant.parse("2025-01-01T10:00:00.123456Z"), 42);
+
+        assertThat(FeedCursor.decode(cursor.encode())).isEqualTo(cursor);
+    }
+
+    @Test
+    void invalidCursorsAreIllegalArguments() {
+        for (var invalid : new String[]{"invalido", "", "MTox"}) {
+            assertThatThrownBy(() -> FeedCursor.decode(invalid)).isInstanceOf(IllegalArgumentException.class);
+        }
+    }
+
+    // A chave de ordenação tem a precisão da coluna (microssegundos), inclusive antes de 1970
+    @Test
+    void sortKeyKeepsMicrosecondsAndGoesBack() {
+        var timestamp = Instant.parse("2025-01-01T10:00:00.123456Z");
+        var beforeEpoch = Instant.parse("1969-12-31T23:59:59.999999Z");
+
+        assertThat(FeedCursor.fromSortKey(FeedCursor.sortKey(timestamp), 7)).isEqualTo(new FeedCursor(timestamp, 7));
+        assertThat(FeedCursor.fromSortKey(FeedCursor.sortKey(beforeEpoch), 7).creationTimestamp()).isEqualTo(beforeEpoch);
+        assertThat(FeedCursor.sortKey(beforeEpoch)).isLessThan(FeedCursor.sortKey(Instant.EPOCH));
+    }
+}
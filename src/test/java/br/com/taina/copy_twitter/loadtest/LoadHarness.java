@@ -0,0 +1,159 @@
+package br.com.taina.copy_twitter.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+// Gerador de carga para comparar o modo padrão (threads do Tomcat) com o perfil "virtual".
+// Não é um teste automatizado: roda contra uma aplicação já iniciada.
+//
+// Uso (com a aplicação rodando em outro terminal, com ou sem --spring.profiles.active=virtual):
+//   java LoadHarness.java [baseUrl] [clientes] [segundos] [endpoint...]
+//   java LoadHarness.java http://localhost:8080 200 30 feed tweets
+//
+// Para comparar o feed JPA (bloqueante) com o caminho R2DBC sob muitos clientes simultâneos:
+//   java LoadHarness.java http://localhost:8080 1000 30 feed reactive-feed reactive-feed-stream
+//
+// Cada cliente é uma virtual thread que faz requisições sem pausa durante o tempo informado.
+// No fim imprime, por endpoint, as requisições por segundo e os percentis de latência.
+public class LoadHarness {
+
+    private static final Pattern TOKEN = Pattern.compile("\"acessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    public static void main(String[] args) throws Exception {
+
+        var baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        var clients = args.length > 1 ? Integer.parseInt(args[1]) : 100;
+        var seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+        var endpoints = args.length > 3 ? List.of(Arrays.copyOfRange(args, 3, args.length)) : List.of("feed", "tweets");
+
+        var http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+
+        var token = login(http, baseUrl, "admin", "123");
+
+        for (var endpoint : endpoints) {
+            run(http, baseUrl, token, endpoint, clients, Duration.ofSeconds(seconds)).print();
+        }
+    }
+
+    static String login(HttpClient http, String baseUrl, String username, String password) throws Exception {
+        var request = HttpRequest.newBuilder(URI.create(baseUrl + "/login"))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(
+                        "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}"))
+                .build();
+        var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+        var matcher = TOKEN.matcher(response.body());
+        if (response.statusCode() != 200 || !matcher.find()) {
+            throw new IllegalStateException("Login failed: HTTP " + response.statusCode());
+        }
+        return matcher.group(1);
+    }
+
+    static HttpRequest request(String baseUrl, String token, String endpoint) {
+        var builder = switch (endpoint) {
+            case "feed" -> HttpRequest.newBuilder(URI.create(baseUrl + "/feed?page=0&pageSize=10")).GET();
+            case "feed-cursor" -> HttpRequest.newBuilder(URI.create(baseUrl + "/feed/cursor?pageSize=10")).GET();
+            case "reactive-feed" -> HttpRequest.newBuilder(URI.create(baseUrl + "/reactive/feed?page=0&pageSize=10")).GET();
+            case "reactive-feed-stream" -> HttpRequest.newBuilder(URI.create(baseUrl + "/reactive/feed/stream?page=0&pageSize=10")).GET();
+            case "user" -> HttpRequest.newBuilder(URI.create(baseUrl + "/reactive/users/admin")).GET();
+            case "profile" -> HttpRequest.newBuilder(URI.create(baseUrl + "/users/admin?recent=10")).GET();
+            case "tweets" -> HttpRequest.newBuilder(URI.create(baseUrl + "/tweets"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString("{\"content\":\"load test tweet\"}"));
+            default -> throw new IllegalArgumentException("Unknown endpoint: " + endpoint);
+        };
+        return builder.header("Authorization", "Bearer " + token)
+                .timeout(Duration.ofSeconds(30))
+                .build();
+    }
+
+    static Result run(HttpClient http, String baseUrl, String token, String endpoint,
+                      int clients, Duration duration) throws InterruptedException {
+
+        var deadline = System.nanoTime() + duration.toNanos();
+        var errors = new AtomicLong();
+        var latencies = new ArrayList<long[]>();
+        var threads = new ArrayList<Thread>();
+
+        for (int c = 0; c < clients; c++) {
+            var samples = new LongList();
+            latencies.add(null);
+            var slot = c;
+            threads.add(Thread.ofVirtual().start(() -> {
+                var request = request(baseUrl, token, endpoint);
+                while (System.nanoTime() < deadline) {
+                    var start = System.nanoTime();
+                    try {
+                        var response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                        if (response.statusCode() >= 400) {
+                            errors.incrementAndGet();
+                        }
+                    } catch (Exception e) {
+                        errors.incrementAndGet();
+                    }
+                    samples.add(System.nanoTime() - start);
+                }
+                synchronized (latencies) {
+                    latencies.set(slot, samples.toArray());
+                }
+            }));
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+
+        var all = latencies.stream().flatMapToLong(Arrays::stream).sorted().toArray();
+        return new Result(endpoint, clients, duration, all, errors.get());
+    }
+
+    record Result(String endpoint, int clients, Duration duration, long[] sortedLatencies, long errors) {
+
+        long percentileMicros(double percentile) {
+            if (sortedLatencies.length == 0) {
+                return 0;
+            }
+            var index = (int) Math.ceil(percentile / 100.0 * sortedLatencies.length) - 1;
+            return sortedLatencies[Math.max(0, index)] / 1_000;
+        }
+
+        void print() {
+            var throughput = sortedLatencies.length / (double) duration.toSeconds();
+            System.out.printf("%-20s clients=%d requests=%d errors=%d throughput=%.1f req/s "
+                            + "p50=%dus p95=%dus p99=%dus p99.9=%dus max=%dus%n",
+                    endpoint, clients, sortedLatencies.length, errors, throughput,
+                    percentileMicros(50), percentileMicros(95), percentileMicros(99),
+                    percentileMicros(99.9), percentileMicros(100));
+        }
+    }
+
+    // Lista de long sem boxing, para não medir o garbage collector junto com a aplicação
+    static class LongList {
+
+        private long[] values = new long[1024];
+
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
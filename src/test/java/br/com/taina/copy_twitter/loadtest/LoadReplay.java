@@ -0,0 +1,377 @@
+package br.com.taina.copy_twitter.loadtest;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+
+// Reproduz uma mistura gravada de requisições (leituras do feed, criação de tweets, logins) contra uma
+// aplicação já iniciada, normalmente com o perfil "seed". Como o LoadHarness, não é um teste automatizado
+// e roda sozinho (java LoadReplay.java), sem depender das outras classes do projeto.
+//
+// O arquivo de carga tem uma requisição por linha: "<ms desde o início> <endpoint> <username>".
+// Endpoints: feed, feed-cursor, tweets, login. Linhas vazias e começando com # são ignoradas.
+//
+// Gerar uma carga sintética (chegadas de Poisson, usuários ativos com distribuição Zipf):
+//   java LoadReplay.java generate [arquivo] [req/s] [segundos] [mistura] [usuários]
+//   java LoadReplay.java generate replay.txt 500 60 feed=70,feed-cursor=10,tweets=15,login=5 100000
+//
+// Reproduzir (speed=2 reproduz duas vezes mais rápido que o gravado):
+//   java LoadReplay.java replay [arquivo] [baseUrl] [speed] [senha]
+//   java LoadReplay.java replay replay.txt http://localhost:8080 1 123
+//
+// A carga é de malha aberta: cada requisição sai no horário gravado, mesmo que as anteriores ainda não
+// tenham respondido. A latência é medida a partir desse horário, então a fila que se forma quando a
+// aplicação não dá conta aparece nos percentis (sem "coordinated omission").
+public class LoadReplay {
+
+    private static final Pattern ACCESS_TOKEN = Pattern.compile("\"acessToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    private static final Pattern REFRESH_TOKEN = Pattern.compile("\"refreshToken\"\\s*:\\s*\"([^\"]+)\"");
+
+    // Renova o token de acesso antes dos 5 minutos de jwt.access-token.ttl
+    private static final long TOKEN_MAX_AGE_NANOS = Duration.ofMinutes(4).toNanos();
+
+    private static final List<String> ENDPOINTS = List.of("feed", "feed-cursor", "tweets", "login");
+
+    public static void main(String[] args) throws Exception {
+        var command = args.length > 0 ? args[0] : "replay";
+        var rest = Arrays.copyOfRange(args, Math.min(1, args.length), args.length);
+        switch (command) {
+            case "generate" -> generate(rest);
+            case "replay" -> replay(rest);
+            default -> throw new IllegalArgumentException("Unknown command: " + command + " (generate|replay)");
+        }
+    }
+
+    record Entry(long offsetMillis, String endpoint, String username) {
+    }
+
+    // ---------------------------------------------------------------- geração
+
+    static void generate(String[] args) throws IOException {
+        var file = Path.of(args.length > 0 ? args[0] : "replay.txt");
+        var rate = args.length > 1 ? Double.parseDouble(args[1]) : 200;
+        var seconds = args.length > 2 ? Integer.parseInt(args[2]) : 60;
+        var mix = parseMix(args.length > 3 ? args[3] : "feed=70,feed-cursor=10,tweets=15,login=5");
+        var users = args.length > 4 ? Integer.parseInt(args[4]) : 100_000;
+
+        var random = new SplittableRandom(42);
+        var zipf = new Zipf(users, 1.1);
+        var endpoints = mix.keySet().toArray(String[]::new);
+        var weights = new double[endpoints.length];
+        var totalWeight = mix.values().stream().mapToDouble(Double::doubleValue).sum();
+        var acc = 0.0;
+        for (int i = 0; i < endpoints.length; i++) {
+            acc += mix.get(endpoints[i]) / totalWeight;
+            weights[i] = acc;
+        }
+
+        long count = 0;
+        try (var out = new PrintWriter(Files.newBufferedWriter(file))) {
+            out.printf("# rate=%.1f req/s, seconds=%d, mix=%s, users=%d%n", rate, seconds, mix, users);
+            // Intervalos exponenciais entre chegadas (processo de Poisson)
+            var offset = 0.0;
+            var end = seconds * 1000.0;
+            while (true) {
+                offset += -Math.log(1 - random.nextDouble()) * 1000.0 / rate;
+                if (offset >= end) {
+                    break;
+                }
+                var pick = random.nextDouble();
+                var index = 0;
+                while (index < weights.length - 1 && pick > weights[index]) {
+                    index++;
+                }
+                out.printf("%d %s user%07d%n", (long) offset, endpoints[index], zipf.sample(random) + 1);
+                count++;
+            }
+        }
+        System.out.printf("Wrote %d requests to %s%n", count, file);
+    }
+
+    static Map<String, Double> parseMix(String mix) {
+        var result = new LinkedHashMap<String, Double>();
+        for (var part : mix.split(",")) {
+            var pair = part.split("=");
+            if (!ENDPOINTS.contains(pair[0])) {
+                throw new IllegalArgumentException("Unknown endpoint: " + pair[0]);
+            }
+            result.put(pair[0], Double.parseDouble(pair[1]));
+        }
+        return result;
+    }
+
+    // Mesmo sorteio do BulkDataSeeder: os usuários mais ativos são os primeiros
+    static final class Zipf {
+
+        private final double[] cumulative;
+
+        Zipf(int n, double exponent) {
+            cumulative = new double[n];
+            var sum = 0.0;
+            for (int k = 0; k < n; k++) {
+                sum += 1.0 / Math.pow(k + 1, exponent);
+                cumulative[k] = sum;
+            }
+            for (int k = 0; k < n; k++) {
+                cumulative[k] /= sum;
+            }
+        }
+
+        int sample(SplittableRandom random) {
+            var index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(index >= 0 ? index : -index - 1, cumulative.length - 1);
+        }
+    }
+
+    // ---------------------------------------------------------------- reprodução
+
+    static void replay(String[] args) throws Exception {
+        var file = Path.of(args.length > 0 ? args[0] : "replay.txt");
+        var baseUrl = args.length > 1 ? args[1] : "http://localhost:8080";
+        var speed = args.length > 2 ? Double.parseDouble(args[2]) : 1.0;
+        var password = args.length > 3 ? args[3] : "123";
+
+        var entries = read(file);
+        if (entries.isEmpty()) {
+            System.out.println("Empty replay file: " + file);
+            return;
+        }
+
+        var http = HttpClient.newBuilder()
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        var sessions = new Sessions(http, baseUrl, password);
+
+        // Os logins iniciais (bcrypt) ficam fora da medição
+        sessions.loginAll(entries.stream().map(Entry::username).distinct().toList());
+
+        var recorders = new TreeMap<String, Recorder>();
+        for (var entry : entries) {
+            recorders.computeIfAbsent(entry.endpoint(), endpoint -> new Recorder());
+        }
+        var maxLag = new AtomicLong();
+        var threads = new ArrayList<Thread>(entries.size());
+
+        var start = System.nanoTime();
+        for (var entry : entries) {
+            var scheduled = start + (long) (entry.offsetMillis() * 1_000_000 / speed);
+            var wait = scheduled - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            } else {
+                maxLag.accumulateAndGet(-wait, Math::max);
+            }
+            var recorder = recorders.get(entry.endpoint());
+            threads.add(Thread.ofVirtual().start(() -> recorder.record(scheduled, send(http, baseUrl, sessions, entry))));
+        }
+        for (var thread : threads) {
+            thread.join();
+        }
+        var elapsed = Duration.ofNanos(System.nanoTime() - start);
+
+        System.out.printf("Replayed %d requests in %.1f s (speed %.1fx, dispatcher max lag %d ms)%n",
+                entries.size(), elapsed.toMillis() / 1000.0, speed, maxLag.get() / 1_000_000);
+        recorders.forEach((endpoint, recorder) -> recorder.print(endpoint, elapsed));
+    }
+
+    static List<Entry> read(Path file) throws IOException {
+        var entries = new ArrayList<Entry>();
+        try (BufferedReader reader = Files.newBufferedReader(file)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.strip();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                var fields = line.split("\\s+");
+                if (!ENDPOINTS.contains(fields[1])) {
+                    throw new IllegalArgumentException("Unknown endpoint in replay file: " + line);
+                }
+                entries.add(new Entry(Long.parseLong(fields[0]), fields[1], fields[2]));
+            }
+        }
+        entries.sort((a, b) -> Long.compare(a.offsetMillis(), b.offsetMillis()));
+        return entries;
+    }
+
+    // Devolve true se a requisição teve sucesso
+    static boolean send(HttpClient http, String baseUrl, Sessions sessions, Entry entry) {
+        try {
+            if (entry.endpoint().equals("login")) {
+                return sessions.login(entry.username()) != null;
+            }
+            var builder = switch (entry.endpoint()) {
+                case "feed" -> HttpRequest.newBuilder(URI.create(baseUrl + "/feed?page=0&pageSize=10")).GET();
+                case "feed-cursor" -> HttpRequest.newBuilder(URI.create(baseUrl + "/feed/cursor?pageSize=10")).GET();
+                case "tweets" -> HttpRequest.newBuilder(URI.create(baseUrl + "/tweets"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(
+                                "{\"content\":\"replay tweet from " + entry.username() + "\"}"));
+                default -> throw new IllegalArgumentException("Unknown endpoint: " + entry.endpoint());
+            };
+            var request = builder.header("Authorization", "Bearer " + sessions.accessToken(entry.username()))
+                    .timeout(Duration.ofSeconds(30))
+                    .build();
+            return http.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() < 400;
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    // Tokens por usuário. O token de acesso é renovado pelo refresh token quando fica velho.
+    static final class Sessions {
+
+        record Session(String accessToken, String refreshToken, long obtainedAt) {
+        }
+
+        private final HttpClient http;
+
+        private final String baseUrl;
+
+        private final String password;
+
+        private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+        Sessions(HttpClient http, String baseUrl, String password) {
+            this.http = http;
+            this.baseUrl = baseUrl;
+            this.password = password;
+        }
+
+        void loginAll(List<String> usernames) throws InterruptedException {
+            var permits = new Semaphore(32);
+            var threads = new ArrayList<Thread>(usernames.size());
+            for (var username : usernames) {
+                permits.acquire();
+                threads.add(Thread.ofVirtual().start(() -> {
+                    try {
+                        if (login(username) == null) {
+                            System.err.println("Login failed for " + username);
+                        }
+                    } finally {
+                        permits.release();
+                    }
+                }));
+            }
+            for (var thread : threads) {
+                thread.join();
+            }
+            System.out.printf("Logged in %d users%n", sessions.size());
+        }
+
+        Session login(String username) {
+            return post("/login", "{\"username\":\"" + username + "\",\"password\":\"" + password + "\"}")
+                    .map(session -> {
+                        sessions.put(username, session);
+                        return session;
+                    })
+                    .orElse(null);
+        }
+
+        String accessToken(String username) {
+            var session = sessions.get(username);
+            if (session == null) {
+                session = login(username);
+            } else if (System.nanoTime() - session.obtainedAt() > TOKEN_MAX_AGE_NANOS) {
+                var refreshed = post("/token/refresh", "{\"refreshToken\":\"" + session.refreshToken() + "\"}");
+                session = refreshed.isPresent() ? refreshed.get() : login(username);
+                if (session != null) {
+                    sessions.put(username, session);
+                }
+            }
+            if (session == null) {
+                throw new IllegalStateException("No session for " + username);
+            }
+            return session.accessToken();
+        }
+
+        private Optional<Session> post(String path, String body) {
+            try {
+                var request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body))
+                        .timeout(Duration.ofSeconds(30))
+                        .build();
+                var response = http.send(request, HttpResponse.BodyHandlers.ofString());
+                var access = ACCESS_TOKEN.matcher(response.body());
+                var refresh = REFRESH_TOKEN.matcher(response.body());
+                if (response.statusCode() != 200 || !access.find() || !refresh.find()) {
+                    return Optional.empty();
+                }
+                return Optional.of(new Session(access.group(1), refresh.group(1), System.nanoTime()));
+            } catch (Exception e) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    // Latências (ns, desde o horário agendado) e erros de um endpoint
+    static final class Recorder {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private long[] latencies = new long[1024];
+
+        private int size;
+
+        private long errors;
+
+        void record(long scheduledNanos, boolean success) {
+            var latency = System.nanoTime() - scheduledNanos;
+            lock.lock();
+            try {
+                if (size == latencies.length) {
+                    latencies = Arrays.copyOf(latencies, size * 2);
+                }
+                latencies[size++] = latency;
+                if (!success) {
+                    errors++;
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void print(String endpoint, Duration elapsed) {
+            var sorted = Arrays.copyOf(latencies, size);
+            Arrays.sort(sorted);
+            System.out.printf("%-12s requests=%d errors=%d throughput=%.1f req/s "
+                            + "p50=%dus p95=%dus p99=%dus p99.9=%dus max=%dus%n",
+                    endpoint, size, errors, size / Math.max(elapsed.toMillis() / 1000.0, 0.001),
+                    percentileMicros(sorted, 50), percentileMicros(sorted, 95), percentileMicros(sorted, 99),
+                    percentileMicros(sorted, 99.9), percentileMicros(sorted, 100));
+        }
+
+        static long percentileMicros(long[] sorted, double percentile) {
+            if (sorted.length == 0) {
+                return 0;
+            }
+            var index = (int) Math.ceil(percentile / 100.0 * sorted.length) - 1;
+            return sorted[Math.max(0, index)] / 1_000;
+        }
+    }
+}
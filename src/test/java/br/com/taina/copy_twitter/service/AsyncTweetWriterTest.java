@@ -0,0 +1,63 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AsyncTweetWriterTest {
+
+    private final TweetIdAllocator idAllocator = mock(TweetIdAllocator.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    @Test
+    void writesQueuedTweetsAndPublishesThemOnShutdown() {
+        var writer = writer(true, 10);
+        when(idAllocator.nextId()).thenReturn(42L);
+        var userId = UUID.randomUUID();
+
+        writer.start();
+        assertThat(writer.submit(userId, "ana", "olá #java")).isEqualTo(42L);
+        writer.stop();
+
+        var event = ArgumentCaptor.forClass(TweetCreatedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().tweetId()).isEqualTo(42L);
+        assertThat(event.getValue().userId()).isEqualTo(userId);
+        // O evento leva o instante na precisão do banco (microssegundos), não o Instant.now() cru
+        assertThat(event.getValue().creationTimestamp().getNano() % 1_000).isZero();
+    }
+
+    @Test
+    void rejectsWhileTheWriterIsStopped() {
+        var writer = writer(true, 10);
+
+        assertThat(writer.submit(UUID.randomUUID(), "ana", "parado")).isNull();
+    }
+
+    @Test
+    void refusesContentTheDatabaseWouldReject() {
+        var writer = writer(true, 10);
+
+        assertThatThrownBy(() -> writer.submit(UUID.randomUUID(), "ana", " "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private AsyncTweetWriter writer(boolean enabled, int queueCapacity) {
+        return new AsyncTweetWriter(enabled, queueCapacity, 200, idAllocator, mock(JdbcTemplate.class),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, new SimpleMeterRegistry());
+    }
+}
@@ -0,0 +1,51 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+
+class FeedBroadcasterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final FeedBroadcaster broadcaster = new FeedBroadcaster(8, 2, Duration.ofMinutes(1), meterRegistry);
+
+    @AfterEach
+    void shutdown() {
+        broadcaster.shutdown();
+    }
+
+    @Test
+    void refusesSubscribersAboveTheLimit() {
+        assertThat(broadcaster.subscribe()).isNotNull();
+        assertThat(broadcaster.subscribe()).isNotNull();
+        assertThat(broadcaster.subscribe()).isNull();
+        assertThat(meterRegistry.get("feed.stream.subscribers").gauge().value()).isEqualTo(2);
+    }
+
+    // Quem publica nunca espera pelos assinantes, mesmo com o buffer dando várias voltas e heartbeats no meio
+    @Test
+    void publishingNeverBlocksOnSubscribers() {
+        broadcaster.subscribe();
+        broadcaster.subscribe();
+
+        assertTimeoutPreemptively(Duration.ofSeconds(10), () -> {
+            for (long id = 1; id <= 10_000; id++) {
+                broadcaster.onTweetCreated(new TweetCreatedEvent(id, UUID.randomUUID(), "user", "tweet " + id, Instant.now()));
+                if (id % 100 == 0) {
+                    broadcaster.onTweetDeleted(new TweetDeletedEvent(id, null));
+                    broadcaster.heartbeat();
+                }
+            }
+        });
+    }
+}
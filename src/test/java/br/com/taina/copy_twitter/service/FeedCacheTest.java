@@ -0,0 +1,120 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import br.com.taina.copy_twitter.service.FeedCache.Key;
+import br.com.taina.copy_twitter.service.FeedCache.Kind;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FeedCacheTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private static final Key OFFSET_PAGE = new Key(Kind.OFFSET, "0", 2, true);
+
+    private static final Key FIRST_CURSOR_PAGE = new Key(Kind.CURSOR, "", 2, false);
+
+    private static final Key NEXT_CURSOR_PAGE = new Key(Kind.CURSOR, "cursor", 2, false);
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void servesRepeatedReadsFromTheCache() {
+        var cache = cache(Duration.ofMinutes(1));
+
+        load(cache, OFFSET_PAGE, 2, 1);
+        load(cache, OFFSET_PAGE, 2, 1);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void expiredPagesAreLoadedAgain() {
+        var cache = cache(Duration.ZERO);
+
+        load(cache, OFFSET_PAGE, 2, 1);
+        load(cache, OFFSET_PAGE, 2, 1);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void aNewTweetOnlyInvalidatesOffsetPagesAndTheFirstCursorPage() {
+        var cache = cache(Duration.ofMinutes(1));
+        load(cache, OFFSET_PAGE, 2, 1);
+        load(cache, FIRST_CURSOR_PAGE, 2, 1);
+        load(cache, NEXT_CURSOR_PAGE, 0);
+
+        cache.onTweetCreated(new TweetCreatedEvent(3L, UUID.randomUUID(), "ana", "novo", NOW.plusSeconds(3)));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void aDeletedTweetInvalidatesTheCursorPagesThatHadIt() {
+        var cache = cache(Duration.ofMinutes(1));
+        load(cache, OFFSET_PAGE, 2, 1);
+        load(cache, FIRST_CURSOR_PAGE, 4, 3);
+        load(cache, NEXT_CURSOR_PAGE, 2, 1);
+
+        cache.onTweetDeleted(new TweetDeletedEvent(1L, null));
+
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    void archivedTweetsInvalidateTheCursorPagesThatHadThem() {
+        var cache = cache(Duration.ofMinutes(1));
+        load(cache, OFFSET_PAGE, 4, 3);
+        load(cache, FIRST_CURSOR_PAGE, 4, 3);
+        load(cache, NEXT_CURSOR_PAGE, 2, 1);
+
+        cache.onTweetsArchived(new TweetsArchivedEvent(0, List.of(1L, 2L)));
+
+        assertThat(cache.size()).isEqualTo(1);
+        load(cache, FIRST_CURSOR_PAGE, 4, 3);
+        assertThat(loads).hasValue(3);
+    }
+
+    // Uma página lida do banco enquanto um tweet é gravado pode estar velha: não entra no cache
+    @Test
+    void aPageLoadedDuringAWriteIsNotCached() {
+        var cache = cache(Duration.ofMinutes(1));
+
+        cache.getOrLoad(OFFSET_PAGE, () -> {
+            cache.onTweetDeleted(new TweetDeletedEvent(9L, null));
+            return items(2, 1);
+        }, page -> page);
+
+        assertThat(cache.size()).isZero();
+    }
+
+    private FeedCache cache(Duration ttl) {
+        return new FeedCache(16, ttl, new SimpleMeterRegistry());
+    }
+
+    private void load(FeedCache cache, Key key, long... tweetIds) {
+        cache.getOrLoad(key, () -> {
+            loads.incrementAndGet();
+            return items(tweetIds);
+        }, page -> page);
+    }
+
+    private static List<FeedItemDto> items(long... tweetIds) {
+        return Arrays.stream(tweetIds)
+                .mapToObj(id -> new FeedItemDto(id, "tweet " + id, "ana", NOW.plusSeconds(id)))
+                .toList();
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.repository.FollowRepository;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class HomeTimelineServiceTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final FollowRepository followRepository = mock(FollowRepository.class);
+
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+
+    // Os ids vêm de blocos da sequência reservados em paralelo: um tweet mais novo pode ter um id menor
+    @Test
+    void ordersByCreationTimeNotById() {
+        var timeline = new HomeTimelineService.Timeline(10);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(1)), 100);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(2)), 51);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(3)), 101);
+
+        assertThat(timeline.idsBefore(null, 10)).containsExactly(101L, 51L, 100L);
+        assertThat(timeline.idsBefore(new FeedCursor(NOW.plusSeconds(2), 51), 10)).containsExactly(100L);
+    }
+
+    @Test
+    void keepsTheNewestTweetsWhenFull() {
+        var timeline = new HomeTimelineService.Timeline(2);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(2)), 2);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(3)), 3);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(1)), 1);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(4)), 4);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(4)), 4);
+
+        assertThat(timeline.idsBefore(null, 10)).containsExactly(4L, 3L);
+    }
+
+    @Test
+    void mergesTheDatabaseRebuildWithTweetsPushedMeanwhile() {
+        var timeline = new HomeTimelineService.Timeline(3);
+        timeline.push(FeedCursor.sortKey(NOW.plusSeconds(5)), 5);
+
+        timeline.load(List.of(new FeedCursor(NOW.plusSeconds(5), 5), new FeedCursor(NOW.plusSeconds(4), 40),
+                new FeedCursor(NOW.plusSeconds(3), 3), new FeedCursor(NOW.plusSeconds(2), 2)));
+
+        assertThat(timeline.isLoaded()).isTrue();
+        assertThat(timeline.idsBefore(null, 10)).containsExactly(5L, 40L, 3L);
+    }
+
+    @Test
+    void readPagesWithTheFeedCursor() {
+        var userId = UUID.randomUUID();
+        var service = new HomeTimelineService(followRepository, tweetRepository, 10, 1000, 100,
+                Duration.ofMinutes(10), new SimpleMeterRegistry());
+        when(followRepository.findFollowedIds(userId)).thenReturn(List.of());
+        when(tweetRepository.findHomeTimeline(eq(userId), any())).thenReturn(List.of(
+                new FeedCursor(NOW.plusSeconds(2), 7), new FeedCursor(NOW.plusSeconds(1), 9)));
+        when(tweetRepository.findFeedItemsByIds(anyCollection())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(id -> item(id, id == 7 ? 2 : id == 9 ? 1 : 3)).toList();
+        });
+
+        var first = service.read(userId, null, 1);
+        assertThat(first.feedItens()).extracting(FeedItemDto::tweetId).containsExactly(7L);
+        assertThat(first.nextCursor()).isEqualTo(new FeedCursor(NOW.plusSeconds(2), 7).encode());
+
+        // Um tweet novo do próprio usuário, com id menor, entra no topo
+        service.onTweetCreated(new TweetCreatedEvent(3L, userId, "ana", "novo", NOW.plusSeconds(3)));
+        assertThat(service.read(userId, null, 10).feedItens()).extracting(FeedItemDto::tweetId)
+                .containsExactly(3L, 7L, 9L);
+
+        var second = service.read(userId, FeedCursor.decode(first.nextCursor()), 1);
+        assertThat(second.feedItens()).extracting(FeedItemDto::tweetId).containsExactly(9L);
+    }
+
+    private static FeedItemDto item(long tweetId, long second) {
+        return new FeedItemDto(tweetId, "tweet " + tweetId, "ana", NOW.plusSeconds(second));
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.taina.copy_twitter.service;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginRateLimiterTest {
+
+    // Sem refill durante o teste: só a capacidade conta
+    private final LoginRateLimiter limiter = new LoginRateLimiter(3, 0);
+
+    @Test
+    void aBurstFromOneAddressIsStoppedAtTheCapacity() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("user" + i, "10.0.0.1")).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire("outro", "10.0.0.1")).isFalse();
+        assertThat(limiter.tryAcquire("outro", "10.0.0.2")).isTrue();
+    }
+
+    @Test
+    void failedAttemptsLockTheUsernameFromEveryAddress() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ana", "10.0.0." + i)).isTrue();
+            limiter.recordFailure("ana");
+        }
+
+        assertThat(limiter.tryAcquire("ana", "10.0.0.9")).isFalse();
+        assertThat(limiter.tryAcquire("bia", "10.0.0.9")).isTrue();
+    }
+
+    // Logins corretos do dono da conta não gastam o balde do username
+    @Test
+    void successfulLoginsOnlyCountAgainstTheAddress() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("ana", "10.0.0." + i)).isTrue();
+        }
+
+        assertThat(limiter.tryAcquire("ana", "10.0.0.9")).isTrue();
+    }
+}
@@ -0,0 +1,97 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class OffHeapFeedWindowTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+
+    @Test
+    void rendersPagesFromThePreloadedTweets() throws IOException {
+        var window = window(10, item(3), item(2), item(1));
+
+        var first = objectMapper.readTree(window.renderPage(0, 2, null));
+        assertThat(ids(first)).containsExactly(3L, 2L);
+        assertThat(first.get("totalElements").asLong()).isEqualTo(-1);
+
+        // A janela tem o feed todo: a página curta no fim também sai dela
+        var second = objectMapper.readTree(window.renderPage(1, 2, () -> 3L));
+        assertThat(ids(second)).containsExactly(1L);
+        assertThat(second.get("totalPages").asInt()).isEqualTo(2);
+        assertThat(second.get("feedItens").get(0).get("username").asText()).isEqualTo("ana");
+    }
+
+    @Test
+    void followsCreatedAndDeletedTweets() throws IOException {
+        var window = window(10, item(2), item(1));
+
+        window.onTweetCreated(new TweetCreatedEvent(3L, UUID.randomUUID(), "bia", "novo \"tweet\"", NOW.plusSeconds(3)));
+        window.onTweetDeleted(new TweetDeletedEvent(2L, null));
+
+        var page = objectMapper.readTree(window.renderPage(0, 10, null));
+        assertThat(ids(page)).containsExactly(3L, 1L);
+        assertThat(page.get("feedItens").get(0).get("content").asText()).isEqualTo("novo \"tweet\"");
+    }
+
+    // Um pageSize enorme não reserva memória pelo tamanho pedido, só pelo que a janela tem
+    @Test
+    void hugePageSizeIsBoundedByTheWindow() throws IOException {
+        var window = window(10, item(2), item(1));
+
+        var page = objectMapper.readTree(window.renderPage(0, Integer.MAX_VALUE, null));
+
+        assertThat(ids(page)).containsExactly(2L, 1L);
+    }
+
+    // Sem espaço para todos os tweets do banco, uma página além da janela vai para o banco (null)
+    @Test
+    void pagesBeyondAnIncompleteWindowFallBackToTheDatabase() throws IOException {
+        var window = window(2, item(3), item(2), item(1));
+
+        assertThat(ids(objectMapper.readTree(window.renderPage(0, 2, null)))).containsExactly(3L, 2L);
+        assertThat(window.renderPage(1, 2, null)).isNull();
+    }
+
+    private OffHeapFeedWindow window(int maxTweets, FeedItemDto... newestFirst) {
+        when(tweetRepository.findFeedHead(any())).thenReturn(List.of(newestFirst));
+        var window = new OffHeapFeedWindow(true, maxTweets, DataSize.ofKilobytes(64), tweetRepository,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleMeterRegistry());
+        window.afterSingletonsInstantiated();
+        return window;
+    }
+
+    private static FeedItemDto item(long tweetId) {
+        return new FeedItemDto(tweetId, "tweet " + tweetId, "ana", NOW.plusSeconds(tweetId));
+    }
+
+    private static List<Long> ids(JsonNode page) {
+        var ids = new ArrayList<Long>();
+        page.get("feedItens").forEach(item -> ids.add(item.get("tweetId").asLong()));
+        return ids;
+    }
+}
@@ -0,0 +1,75 @@
+package br.com.taina.copy_twitter.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class PasswordHashingServiceTest {
+
+    private PasswordHashingService service;
+
+    @AfterEach
+    void shutdown() {
+        service.shutdown();
+    }
+
+    @Test
+    void hashesAndMatchesOffTheCallerThread() throws Exception {
+        var caller = Thread.currentThread();
+        var encoder = new BCryptPasswordEncoder(4) {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                assertThat(Thread.currentThread()).isNotSameAs(caller);
+                return super.encode(rawPassword);
+            }
+        };
+        service = new PasswordHashingService(encoder, 1, 10, new SimpleMeterRegistry());
+
+        var hash = service.encode("segredo").get();
+
+        assertThat(service.matches("segredo", hash).get()).isTrue();
+        assertThat(service.matches("errada", hash).get()).isFalse();
+    }
+
+    @Test
+    void hashesWithALowerCostNeedARehash() {
+        service = new PasswordHashingService(new BCryptPasswordEncoder(5), 1, 1, new SimpleMeterRegistry());
+
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(4).encode("segredo"))).isTrue();
+        assertThat(service.needsRehash(new BCryptPasswordEncoder(5).encode("segredo"))).isFalse();
+    }
+
+    // Pool ocupado e fila cheia: a requisição recebe 503 em vez de esperar
+    @Test
+    void rejectsWithServiceUnavailableWhenTheQueueIsFull() {
+        var release = new CountDownLatch(1);
+        var encoder = mock(BCryptPasswordEncoder.class);
+        when(encoder.encode(any())).thenAnswer(invocation -> {
+            release.await();
+            return "hash";
+        });
+        service = new PasswordHashingService(encoder, 1, 1, new SimpleMeterRegistry());
+
+        try {
+            service.encode("primeira");
+            service.encode("na fila");
+
+            assertThatThrownBy(() -> service.encode("terceira"))
+                    .isInstanceOfSatisfying(ResponseStatusException.class,
+                            e -> assertThat(e.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE));
+        } finally {
+            release.countDown();
+        }
+    }
+}
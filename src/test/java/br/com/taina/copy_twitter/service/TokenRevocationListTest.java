@@ -0,0 +1,62 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.entity.RevokedToken;
+import br.com.taina.copy_twitter.repository.RevokedTokenRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationListTest {
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+
+    private final TokenRevocationList revocationList =
+            new TokenRevocationList(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void loadsRevocationsThatHaveNotExpiredYet() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(
+                new RevokedToken("a", Instant.now().plusSeconds(60))));
+
+        revocationList.afterSingletonsInstantiated();
+
+        assertThat(revocationList.isRevoked("a")).isTrue();
+        assertThat(revocationList.isRevoked("b")).isFalse();
+        assertThat(revocationList.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void writesEachRevocationOnce() {
+        var expiresAt = Instant.now().plusSeconds(60);
+
+        revocationList.revoke("a", expiresAt);
+        revocationList.revoke("a", expiresAt);
+        revocationList.revoke(null, expiresAt);
+
+        assertThat(revocationList.isRevoked("a")).isTrue();
+        assertThat(revocationList.size()).isEqualTo(1);
+        verify(repository, times(1)).save(any(RevokedToken.class));
+    }
+
+    @Test
+    void compactionDropsExpiredRevocations() {
+        revocationList.revoke("expired", Instant.now().minusSeconds(1));
+        revocationList.revoke("valid", Instant.now().plusSeconds(60));
+
+        revocationList.compact();
+
+        assertThat(revocationList.isRevoked("expired")).isFalse();
+        assertThat(revocationList.isRevoked("valid")).isTrue();
+        verify(repository).deleteExpired(any());
+    }
+}
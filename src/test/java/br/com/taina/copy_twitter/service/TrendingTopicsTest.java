@@ -0,0 +1,71 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.TrendDto;
+import br.com.taina.copy_twitter.service.TrendingTopics.Window;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TrendingTopicsTest {
+
+    @Test
+    void keepsTheMostUsedHashtagsInOrder() {
+        var trending = new TrendingTopics(2, 100);
+        var now = System.currentTimeMillis();
+        record(trending, "java", 5, now);
+        record(trending, "spring", 3, now);
+        record(trending, "kotlin", 1, now);
+
+        trending.refresh();
+
+        assertThat(trending.trends(Window.HOUR)).extracting(TrendDto::hashtag).containsExactly("java", "spring");
+        assertThat(trending.trends(Window.HOUR)).extracting(TrendDto::count).containsExactly(5L, 3L);
+    }
+
+    @Test
+    void olderBucketsLeaveTheHourWindowButStayInTheDay() {
+        var trending = new TrendingTopics(10, 100);
+        var now = System.currentTimeMillis();
+        record(trending, "ontem", 4, now - Duration.ofHours(2).toMillis());
+        record(trending, "agora", 1, now);
+
+        trending.refresh();
+
+        assertThat(trending.trends(Window.HOUR)).extracting(TrendDto::hashtag).containsExactly("agora");
+        assertThat(trending.trends(Window.DAY)).extracting(TrendDto::hashtag).containsExactly("ontem", "agora");
+    }
+
+    // Os contadores são atômicos: incrementos simultâneos não se perdem
+    @Test
+    void sketchCountsConcurrentIncrements() throws Exception {
+        var sketch = new TrendingTopics.CountMinSketch(4, 4096);
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 8; t++) {
+                tasks.add(() -> {
+                    for (int i = 0; i < 10_000; i++) {
+                        sketch.increment("java");
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+
+        assertThat(sketch.estimate("java")).isEqualTo(80_000);
+        assertThat(sketch.estimate("spring")).isZero();
+    }
+
+    private static void record(TrendingTopics trending, String hashtag, int times, long nowMillis) {
+        for (int i = 0; i < times; i++) {
+            trending.record(hashtag, nowMillis);
+        }
+    }
+}
@@ -0,0 +1,74 @@
+package br.com.taina.copy_twitter.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TweetIdAllocatorTest {
+
+    private final JdbcTemplate jdbcTemplate = mock(JdbcTemplate.class);
+
+    // A sequência devolve o início de cada bloco, como no pooled-lo: 1, 51, 101...
+    private final AtomicLong sequence = new AtomicLong(1);
+
+    @Test
+    void handsOutTheWholeBlockBeforeReadingTheSequenceAgain() {
+        var allocator = allocator();
+
+        for (long expected = 1; expected <= TweetIdAllocator.ALLOCATION_SIZE + 1; expected++) {
+            assertThat(allocator.nextId()).isEqualTo(expected);
+        }
+        verify(jdbcTemplate, times(2)).queryForObject(anyString(), eq(Long.class));
+    }
+
+    // Milhares de virtual threads disputando o lock: nenhum id repetido e nenhum bloco desperdiçado
+    @Test
+    void idsAreUniqueAcrossVirtualThreads() throws Exception {
+        var allocator = allocator();
+        var threads = 1000;
+        var idsPerThread = 10;
+
+        var futures = new ArrayList<Future<long[]>>(threads);
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < threads; i++) {
+                futures.add(executor.submit((Callable<long[]>) () -> {
+                    var ids = new long[idsPerThread];
+                    for (int j = 0; j < idsPerThread; j++) {
+                        ids[j] = allocator.nextId();
+                    }
+                    return ids;
+                }));
+            }
+        }
+
+        var ids = new HashSet<Long>();
+        for (var future : futures) {
+            for (var id : future.get()) {
+                ids.add(id);
+            }
+        }
+        assertThat(ids).hasSize(threads * idsPerThread);
+        verify(jdbcTemplate, times(threads * idsPerThread / TweetIdAllocator.ALLOCATION_SIZE))
+                .queryForObject(anyString(), eq(Long.class));
+    }
+
+    private TweetIdAllocator allocator() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class)))
+                .thenAnswer(invocation -> sequence.getAndAdd(TweetIdAllocator.ALLOCATION_SIZE));
+        return new TweetIdAllocator(jdbcTemplate);
+    }
+}
@@ -0,0 +1,92 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.dto.FeedItemDto;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class TweetPartitionsTest {
+
+    @TempDir
+    Path directory;
+
+    private final TweetRepository tweetRepository = mock(TweetRepository.class);
+
+    private final ApplicationEventPublisher eventPublisher = mock(ApplicationEventPublisher.class);
+
+    private final int today = TweetPartitions.bucketOf(Instant.now());
+
+    private final int oldBucket = today - 5;
+
+    private TweetArchive tweetArchive;
+
+    private TweetPartitions partitions;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        tweetArchive = new TweetArchive(directory, JsonMapper.builder().findAndAddModules().build());
+        partitions = new TweetPartitions(tweetRepository, tweetArchive,
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), eventPublisher, 1);
+        when(tweetRepository.findBuckets()).thenReturn(List.of(oldBucket, today));
+        partitions.afterSingletonsInstantiated();
+    }
+
+    // Um tweet apagado pelo autor durante o arquivamento (o DELETE não o devolve) não pode voltar pelo arquivo
+    @Test
+    void archivesExpiredPartitionsAndDropsTweetsDeletedMeanwhile() {
+        var newest = item(3, 30);
+        var deletedMeanwhile = item(2, 20);
+        var oldest = item(1, 10);
+        when(tweetRepository.streamBucket(oldBucket)).thenReturn(Stream.of(newest, deletedMeanwhile, oldest));
+        when(tweetRepository.deleteArchived(anyCollection())).thenReturn(List.of(3L, 1L));
+
+        partitions.archiveExpired();
+
+        assertThat(tweetArchive.contains(oldBucket)).isTrue();
+        assertThat(tweetArchive.read(oldBucket, null, 10)).containsExactly(newest, oldest);
+        verify(tweetRepository).deleteArchived(List.of(3L, 2L, 1L));
+        verify(eventPublisher).publishEvent(new TweetsArchivedEvent(oldBucket, List.of(3L, 2L, 1L)));
+    }
+
+    @Test
+    void cursorFeedWalksFromTheDatabaseIntoTheArchive() {
+        var newest = item(3, 30);
+        var middle = item(2, 20);
+        var oldest = item(1, 10);
+        when(tweetRepository.streamBucket(oldBucket)).thenReturn(Stream.of(newest, middle, oldest));
+        when(tweetRepository.deleteArchived(anyCollection())).thenReturn(List.of(3L, 2L, 1L));
+        partitions.archiveExpired();
+
+        var todayItem = new FeedItemDto(4L, "hoje", "ana", Instant.now());
+        when(tweetRepository.findFeedHeadInBucket(eq(today), any())).thenReturn(List.of(todayItem));
+
+        assertThat(partitions.feedBefore(null, 3)).containsExactly(todayItem, newest, middle);
+        assertThat(partitions.feedBefore(new FeedCursor(middle.creationTimestamp(), middle.tweetId()), 10))
+                .containsExactly(oldest);
+    }
+
+    private FeedItemDto item(long tweetId, long secondOfDay) {
+        return new FeedItemDto(tweetId, "tweet " + tweetId, "ana", Instant.ofEpochSecond(oldBucket * 86_400L + secondOfDay));
+    }
+}
@@ -0,0 +1,133 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.FeedCursor;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.event.TweetsArchivedEvent;
+import br.com.taina.copy_twitter.repository.TweetRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.mockito.Mockito.mock;
+
+class TweetSearchIndexTest {
+
+    private static final Instant NOW = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final TweetSearchIndex index = new TweetSearchIndex(mock(TweetRepository.class), 1);
+
+    @Test
+    void returnsNewestTweetsContainingAllTerms() {
+        add(1, "Café com #Java");
+        add(2, "java e spring");
+        add(3, "café sem java");
+        add(4, "só spring");
+
+        assertThat(search("java cafe", null, 10)).containsExactly(3L, 1L);
+        assertThat(search("JAVA", null, 2)).containsExactly(3L, 2L);
+        assertThat(search("java", new FeedCursor(at(3), 3), 10)).containsExactly(2L, 1L);
+        assertThat(search("kotlin java", null, 10)).isEmpty();
+    }
+
+    // O limite vem do cliente: não pode virar o tamanho inicial da lista de resultados
+    @Test
+    void hugeLimitOnlyHoldsTheMatches() {
+        add(1, "java");
+        add(2, "java");
+
+        assertThat(search("java", null, Integer.MAX_VALUE)).containsExactly(2L, 1L);
+    }
+
+    @Test
+    void deletedAndArchivedTweetsAreNotReturned() {
+        add(1, "java");
+        add(2, "java");
+        add(3, "java");
+
+        index.onTweetDeleted(new TweetDeletedEvent(3L, UUID.randomUUID()));
+        index.onTweetsArchived(new TweetsArchivedEvent(0, List.of(1L)));
+        assertThat(search("java", null, 10)).containsExactly(2L);
+
+        index.compact();
+        assertThat(search("java", null, 10)).containsExactly(2L);
+    }
+
+    // Buscas com os mesmos termos em ordens diferentes, com escritas nas mesmas listas ao mesmo tempo:
+    // não pode haver deadlock e todo id devolvido precisa estar nas duas listas
+    @Test
+    void concurrentSearchesAndWritesDoNotDeadlock() {
+        var nextId = new AtomicLong();
+        for (int i = 0; i < 1_000; i++) {
+            add(nextId.incrementAndGet(), i % 2 == 0 ? "alpha beta" : "alpha");
+        }
+
+        assertTimeoutPreemptively(Duration.ofSeconds(30), () -> {
+            try (var executor = Executors.newFixedThreadPool(8)) {
+                var tasks = new ArrayList<Callable<Void>>();
+                for (int t = 0; t < 4; t++) {
+                    var query = t % 2 == 0 ? "alpha beta" : "beta alpha";
+                    tasks.add(() -> {
+                        for (int i = 0; i < 2_000; i++) {
+                            for (var hit : index.search(query, null, 20)) {
+                                var justAfter = new FeedCursor(hit.creationTimestamp(), hit.tweetId() + 1);
+                                assertThat(search("beta", justAfter, 1)).containsExactly(hit.tweetId());
+                            }
+                        }
+                        return null;
+                    });
+                    tasks.add(() -> {
+                        for (int i = 0; i < 2_000; i++) {
+                            var id = nextId.incrementAndGet();
+                            add(id, i % 2 == 0 ? "beta alpha" : "beta");
+                        }
+                        return null;
+                    });
+                }
+                for (Future<Void> future : executor.invokeAll(tasks)) {
+                    future.get();
+                }
+            }
+        });
+    }
+
+    // Os ids vêm de blocos da sequência reservados em paralelo: um tweet mais novo pode ter um id menor,
+    // e a busca segue a ordem do feed (timestamp, id)
+    @Test
+    void ordersByCreationTimeNotById() {
+        add(100, "java", at(1));
+        add(51, "java", at(2));
+        add(101, "java", at(3));
+
+        assertThat(search("java", null, 10)).containsExactly(101L, 51L, 100L);
+        var first = index.search("java", null, 2);
+        assertThat(search("java", first.get(1), 10)).containsExactly(100L);
+        assertThat(first.get(0)).isEqualTo(new FeedCursor(at(3), 101));
+    }
+
+    private List<Long> search(String query, FeedCursor before, int limit) {
+        return index.search(query, before, limit).stream().map(FeedCursor::tweetId).toList();
+    }
+
+    private void add(long tweetId, String content) {
+        add(tweetId, content, at(tweetId));
+    }
+
+    private void add(long tweetId, String content, Instant creationTimestamp) {
+        index.onTweetCreated(new TweetCreatedEvent(tweetId, UUID.randomUUID(), "user", content, creationTimestamp));
+    }
+
+    private static Instant at(long second) {
+        return NOW.plusSeconds(second);
+    }
+}
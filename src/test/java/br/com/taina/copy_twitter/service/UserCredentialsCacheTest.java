@@ -0,0 +1,77 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.dto.UserCredentialsRowDto;
+import br.com.taina.copy_twitter.repository.UserRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserCredentialsCacheTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private final UserCredentialsCache cache = new UserCredentialsCache(userRepository,
+            new TransactionTemplate(mock(PlatformTransactionManager.class)), 2, Duration.ofMinutes(10), meterRegistry);
+
+    @Test
+    void loadsOnceAndJoinsTheRolesIntoScopes() {
+        var userId = UUID.randomUUID();
+        when(userRepository.findCredentialsByUsername("ana")).thenReturn(List.of(
+                new UserCredentialsRowDto(userId, "ana", "hash", "BASIC"),
+                new UserCredentialsRowDto(userId, "ana", "hash", "ADMIN")));
+
+        var first = cache.get("ana");
+        var second = cache.get("ana");
+
+        assertThat(first).contains(new UserCredentialsCache.Credentials(userId, "ana", "hash", "BASIC ADMIN"));
+        assertThat(second).isEqualTo(first);
+        verify(userRepository, times(1)).findCredentialsByUsername("ana");
+        assertThat(meterRegistry.get("users.credentials-cache.requests").tag("result", "hit").counter().count()).isEqualTo(1);
+    }
+
+    // Não encontrado: confirma no primário e não guarda nada (um cadastro logo depois precisa ser visto)
+    @Test
+    void unknownUsersAreConfirmedAndNotCached() {
+        when(userRepository.findCredentialsByUsername("novo")).thenReturn(List.of());
+
+        assertThat(cache.get("novo")).isEmpty();
+        verify(userRepository, times(2)).findCredentialsByUsername("novo");
+
+        var userId = UUID.randomUUID();
+        when(userRepository.findCredentialsByUsername("novo"))
+                .thenReturn(List.of(new UserCredentialsRowDto(userId, "novo", "hash", "BASIC")));
+        assertThat(cache.get("novo")).map(UserCredentialsCache.Credentials::userId).contains(userId);
+    }
+
+    @Test
+    void invalidateAndSizeLimitForceAReload() {
+        for (var username : List.of("ana", "bia", "caio")) {
+            when(userRepository.findCredentialsByUsername(username))
+                    .thenReturn(List.of(new UserCredentialsRowDto(UUID.randomUUID(), username, "hash", "BASIC")));
+        }
+
+        cache.get("ana");
+        cache.invalidate("ana");
+        cache.get("ana");
+        verify(userRepository, times(2)).findCredentialsByUsername("ana");
+
+        // Limite de 2 entradas: "ana" é a usada há mais tempo e sai quando "caio" entra
+        cache.get("bia");
+        cache.get("caio");
+        cache.get("ana");
+        verify(userRepository, times(3)).findCredentialsByUsername("ana");
+    }
+}
@@ -0,0 +1,88 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.entity.UserTweetCounter;
+import br.com.taina.copy_twitter.event.TweetCreatedEvent;
+import br.com.taina.copy_twitter.event.TweetDeletedEvent;
+import br.com.taina.copy_twitter.repository.UserTweetCounterRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UserTweetCountersTest {
+
+    private final UserTweetCounterRepository repository = mock(UserTweetCounterRepository.class);
+
+    private final UserTweetCounters counters =
+            new UserTweetCounters(repository, new TransactionTemplate(mock(PlatformTransactionManager.class)));
+
+    @Test
+    void rebuildsFromTweetsWhenTheCounterTableIsEmpty() {
+        var userId = UUID.randomUUID();
+        var lastTweetAt = Instant.parse("2025-01-01T10:00:00Z");
+        when(repository.findAll()).thenReturn(List.of());
+        when(repository.countTweetsByUser()).thenReturn(List.of(new UserTweetCounter(userId, 3L, lastTweetAt)));
+
+        counters.afterSingletonsInstantiated();
+
+        assertThat(counters.get(userId)).isEqualTo(new UserTweetCounters.Snapshot(3, lastTweetAt));
+        assertThat(counters.get(UUID.randomUUID())).isEqualTo(new UserTweetCounters.Snapshot(0, null));
+    }
+
+    // LongAdder: criações e remoções simultâneas do mesmo autor não perdem incrementos
+    @Test
+    void countsConcurrentEvents() throws Exception {
+        var userId = UUID.randomUUID();
+        var newest = Instant.parse("2025-01-01T10:00:00Z");
+        try (var executor = Executors.newFixedThreadPool(8)) {
+            var tasks = new ArrayList<Callable<Void>>();
+            for (int t = 0; t < 8; t++) {
+                var thread = t;
+                tasks.add(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        var id = thread * 1_000L + i;
+                        counters.onTweetCreated(new TweetCreatedEvent(id, userId, "ana", "tweet", newest.minusSeconds(id)));
+                        if (i % 10 == 0) {
+                            counters.onTweetDeleted(new TweetDeletedEvent(id, userId));
+                        }
+                    }
+                    return null;
+                });
+            }
+            for (var future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        }
+
+        assertThat(counters.get(userId)).isEqualTo(new UserTweetCounters.Snapshot(8_000 - 800, newest));
+    }
+
+    @Test
+    void flushWritesOnlyUsersThatChanged() {
+        var userId = UUID.randomUUID();
+        when(repository.findAllById(anyIterable())).thenReturn(List.of());
+        counters.onTweetCreated(new TweetCreatedEvent(1L, userId, "ana", "tweet", Instant.now()));
+
+        counters.flush();
+        counters.flush();
+
+        verify(repository, times(1)).saveAll(anyIterable());
+
+        counters.onTweetDeleted(new TweetDeletedEvent(1L, userId));
+        counters.flush();
+        verify(repository, times(2)).saveAll(anyIterable());
+    }
+}
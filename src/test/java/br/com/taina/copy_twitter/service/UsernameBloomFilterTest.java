@@ -0,0 +1,49 @@
+package br.com.taina.copy_twitter.service;
+
+import br.com.taina.copy_twitter.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class UsernameBloomFilterTest {
+
+    private final UserRepository userRepository = mock(UserRepository.class);
+
+    private final TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Test
+    void loadsExistingUsernamesOnStartup() {
+        when(userRepository.streamUsernames()).thenReturn(Stream.of("ana", "bia"));
+        var filter = new UsernameBloomFilter(userRepository, transactionTemplate, 1_000, 0.01);
+
+        filter.afterSingletonsInstantiated();
+
+        assertThat(filter.mightContain("ana")).isTrue();
+        assertThat(filter.mightContain("bia")).isTrue();
+    }
+
+    @Test
+    void neverMissesAnAddedUsernameAndKeepsFalsePositivesNearTheConfiguredRate() {
+        var filter = new UsernameBloomFilter(userRepository, transactionTemplate, 10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.add("user" + i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertThat(filter.mightContain("user" + i)).isTrue();
+        }
+        var falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}